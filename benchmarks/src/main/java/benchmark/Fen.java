@@ -0,0 +1,58 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Reads positions written in Forsyth-Edwards Notation. Only the piece placement and
+ * side to move fields are used, since the game has no castling or en passant.
+ */
+public class Fen {
+
+    public static ChessGame parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] ranks = fields[0].split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("Expected 8 ranks in FEN: " + fen);
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char symbol : ranks[i].toCharArray()) {
+                if (Character.isDigit(symbol)) {
+                    col += symbol - '0';
+                } else {
+                    board.addPiece(ChessPosition.of(row, col), piece(symbol));
+                    col++;
+                }
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("Rank " + row + " does not have 8 squares in FEN: " + fen);
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        boolean blackToMove = fields.length > 1 && fields[1].equals("b");
+        game.setTeamTurn(blackToMove ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        return game;
+    }
+
+    private static ChessPiece piece(char symbol) {
+        ChessGame.TeamColor color = Character.isUpperCase(symbol) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch (Character.toLowerCase(symbol)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Unknown piece in FEN: " + symbol);
+        };
+        return ChessPiece.of(color, type);
+    }
+}
@@ -0,0 +1,136 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.LegalMoveGenerator;
+import chess.MoveCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the chess rules operations the server runs for every move, against each of
+ * the standard test positions.
+ * <p>
+ * Every iteration asks about the same position, so anything going through the shared
+ * {@link MoveCache} is a lookup after the first call. The {@link ChessGame} benchmarks
+ * run in a fork with the cache turned off, so they measure move generation on every
+ * call; the {@code cached} ones run the same methods with the cache on and measure the
+ * lookup the server gets on a hit. {@code generatorLegalMoves} calls
+ * {@link LegalMoveGenerator} directly for the whole position.
+ * <p>
+ * Build with {@code mvn -P benchmarks package -DskipTests} and run the jar in
+ * {@code benchmarks/target}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+    // a shared move cache of size 0 generates the moves on every call
+    private static final String NO_MOVE_CACHE = "-Dchess.moveCache.size=0";
+
+    @Param
+    private TestPosition position;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private ChessGame.TeamColor turn;
+    // squares holding a piece of the side to move
+    private List<ChessPosition> pieces;
+
+    @Setup
+    public void setUp() {
+        game = Fen.parse(position.fen());
+        board = game.getBoard();
+        turn = game.getTeamTurn();
+        pieces = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+                if (piece != null && piece.getTeamColor() == turn) {
+                    pieces.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (ChessPosition square : pieces) {
+            blackhole.consume(board.getPiece(square).pieceMoves(board, square));
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = NO_MOVE_CACHE)
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition square : pieces) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public Collection<ChessMove> generatorLegalMoves() {
+        return new LegalMoveGenerator(board, turn).legalMoves();
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(turn);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = NO_MOVE_CACHE)
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(turn);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = NO_MOVE_CACHE)
+    public boolean isInStalemate() {
+        return game.isInStalemate(turn);
+    }
+
+    @Benchmark
+    public void cachedValidMoves(Blackhole blackhole) {
+        for (ChessPosition square : pieces) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public boolean cachedIsInCheckmate() {
+        return game.isInCheckmate(turn);
+    }
+
+    @Benchmark
+    public ChessBoard copyBoard() {
+        return new ChessBoard(board);
+    }
+
+    @Benchmark
+    public long perftDepth2() {
+        return Perft.perft(game, 2);
+    }
+}
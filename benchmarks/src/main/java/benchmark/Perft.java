@@ -0,0 +1,93 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.LegalMoveGenerator;
+
+import java.util.Arrays;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. Matching the published
+ * counts for the standard test positions shows the move generator is correct; the time
+ * taken is a rough measure of its speed.
+ * <p>
+ * With no arguments every {@link TestPosition} is checked to its verified depth.
+ * Otherwise the arguments are a depth and an optional FEN, and the count for each move
+ * from the root is printed as well.
+ */
+public class Perft {
+
+    public static long perft(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (ChessMove move : new LegalMoveGenerator(game.getBoard(), game.getTeamTurn()).legalMoves()) {
+            ChessGame.MoveUndo undo = game.applyMove(move);
+            nodes += depth == 1 ? 1 : perft(game, depth - 1);
+            game.undoMove(undo);
+        }
+        return nodes;
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            int depth = Integer.parseInt(args[0]);
+            String fen = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length))
+                    : TestPosition.START.fen();
+            divide(Fen.parse(fen), depth);
+            return;
+        }
+
+        boolean allMatched = true;
+        for (TestPosition position : TestPosition.values()) {
+            ChessGame game = Fen.parse(position.fen());
+            for (int depth = 1; depth <= position.maxVerifiedDepth(); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft(game, depth);
+                long elapsed = System.nanoTime() - start;
+                boolean matched = nodes == position.expectedCount(depth);
+                allMatched &= matched;
+                System.out.printf("%-10s depth %d: %,12d nodes %8.1f ms %,14.0f nodes/s %s%n",
+                        position, depth, nodes, elapsed / 1e6, nodes / (elapsed / 1e9),
+                        matched ? "ok" : "EXPECTED " + position.expectedCount(depth));
+            }
+        }
+        if (!allMatched) {
+            System.exit(1);
+        }
+    }
+
+    private static void divide(ChessGame game, int depth) {
+        long total = 0;
+        long start = System.nanoTime();
+        for (ChessMove move : new LegalMoveGenerator(game.getBoard(), game.getTeamTurn()).legalMoves()) {
+            ChessGame.MoveUndo undo = game.applyMove(move);
+            long nodes = perft(game, depth - 1);
+            game.undoMove(undo);
+            total += nodes;
+            System.out.printf("%s: %,d%n", notation(move), nodes);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("depth %d: %,d nodes in %.1f ms%n", depth, total, elapsed / 1e6);
+    }
+
+    private static String notation(ChessMove move) {
+        String text = square(move.getStartPosition().getRow(), move.getStartPosition().getColumn())
+                + square(move.getEndPosition().getRow(), move.getEndPosition().getColumn());
+        if (move.getPromotionPiece() == null) {
+            return text;
+        }
+        return text + switch (move.getPromotionPiece()) {
+            case QUEEN -> "q";
+            case ROOK -> "r";
+            case BISHOP -> "b";
+            case KNIGHT -> "n";
+            default -> "?";
+        };
+    }
+
+    private static String square(int row, int col) {
+        return "" + (char) ('a' + col - 1) + row;
+    }
+}
@@ -0,0 +1,40 @@
+package benchmark;
+
+/**
+ * Standard perft positions with their published leaf counts. Counts are only listed to
+ * the depth where no castling or en passant move appears in the published totals,
+ * because this game does not implement either.
+ */
+public enum TestPosition {
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w",
+            20, 400, 8902, 197281),
+    ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w",
+            14, 191),
+    PROMOTIONS("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w",
+            6),
+    MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w",
+            46, 2079, 89890);
+
+    private final String fen;
+    private final long[] expectedCounts;
+
+    TestPosition(String fen, long... expectedCounts) {
+        this.fen = fen;
+        this.expectedCounts = expectedCounts;
+    }
+
+    public String fen() {
+        return fen;
+    }
+
+    /**
+     * @return the published leaf count at depth, or -1 if none applies to this game's rules
+     */
+    public long expectedCount(int depth) {
+        return depth >= 1 && depth <= expectedCounts.length ? expectedCounts[depth - 1] : -1;
+    }
+
+    public int maxVerifiedDepth() {
+        return expectedCounts.length;
+    }
+}
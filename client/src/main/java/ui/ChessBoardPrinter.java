@@ -66,7 +66,7 @@ public class ChessBoardPrinter {
     }
 
     private static void extracted(ChessBoard chessBoard, int rank, Collection<ChessMove> legalMoves, int file) {
-        ChessPosition pos = new ChessPosition(rank, file);
+        ChessPosition pos = ChessPosition.of(rank, file);
         // Check if any legal move has an end position matching the current square.
         boolean highlight = isLegalMoveTarget(pos, legalMoves);
         String squareBg = highlight ? SET_BG_COLOR_HIGHLIGHT : getSquareBgColor(rank, file);
@@ -115,7 +115,7 @@ public class ChessBoardPrinter {
 
     private static void extracted(ChessBoard chessBoard, int rank, int file) {
         String squareBg = getSquareBgColor(rank, file);
-        ChessPiece piece = chessBoard.getPiece(new ChessPosition(rank, file));
+        ChessPiece piece = chessBoard.getPiece(ChessPosition.of(rank, file));
         String pieceStr = getPieceIcon(piece);
         String cell = String.format(" %3s ", pieceStr);
         System.out.print(squareBg + cell + RESET_BG_COLOR);
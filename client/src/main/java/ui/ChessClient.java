@@ -4,13 +4,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import chess.*;
-import com.google.gson.Gson;
 import model.UserData;
 import exception.ResponseException;
 import ui.websocket.ServerMessageHandler;
 import ui.websocket.WebsocketFacade;
 import websocket.messages.Error;
 import websocket.messages.LoadGame;
+import websocket.messages.MoveMade;
 import websocket.messages.Notification;
 import websocket.messages.ServerMessage;
 
@@ -21,11 +21,17 @@ public class ChessClient implements ServerMessageHandler {
     private State state = State.SIGNEDOUT;
     // Holds the game IDs in the order they were listed.
     private ArrayList<Integer> lastGameIds = new ArrayList<>();
+    // where the next page of the game list starts; null once the last page was shown
+    private String nextGamesCursor;
     private WebsocketFacade ws;
     private final ServerMessageHandler notificationHandler;
     boolean whitePerspective = true;
     int currentGame;
     private ChessBoard board;
+    // the number of moves played to reach board
+    private int sequence;
+    // a RESYNC was sent and its LOAD_GAME hasn't arrived yet
+    private boolean resyncPending;
 
     public ChessClient(String serverUrl, ServerMessageHandler notificationHandler) {
         server = new ServerFacade(serverUrl);
@@ -33,23 +39,59 @@ public class ChessClient implements ServerMessageHandler {
         this.notificationHandler = notificationHandler;
     }
 
+    // the facade has already parsed the message into the subclass its type names
     @Override
     public void notify(ServerMessage message, String strMessage) {
         switch(message.getServerMessageType()) {
             case LOAD_GAME: {
-                LoadGame loadGame = new Gson().fromJson(strMessage, LoadGame.class);
+                LoadGame loadGame = (LoadGame) message;
                 ChessBoardPrinter.printBoard(loadGame.getGame(), whitePerspective);
                 board = loadGame.getGame();
+                sequence = loadGame.getSequence();
+                resyncPending = false;
+                break;
+            }
+            case MOVE_MADE: {
+                MoveMade moveMade = (MoveMade) message;
+                applyMove(moveMade);
+                break;
             }
             case ERROR: {
-                Error error = new Gson().fromJson(strMessage, Error.class);
+                Error error = (Error) message;
                 System.out.println(error.getErrorMessage());
+                // if it was the resync that failed, the next move asks again
+                resyncPending = false;
+                break;
             }
             case NOTIFICATION: {
-                Notification notification = new Gson().fromJson(strMessage, Notification.class);
+                Notification notification = (Notification) message;
                 System.out.println(notification.getMessage());
+                break;
+            }
+        }
+    }
+
+    // Plays a move the server reported on our copy of the board. If a move was missed, the
+    // board can't be trusted, so the server is asked once to send the whole board again and
+    // moves are ignored until it arrives; it already includes them.
+    private void applyMove(MoveMade moveMade) {
+        if (resyncPending) {
+            return;
+        }
+        if (board == null || moveMade.getSequence() != sequence + 1) {
+            try {
+                ws.resync(currentGame);
+                resyncPending = true;
+            } catch (ResponseException e) {
+                System.out.println("Lost track of the game and could not reload it: " + e.getMessage());
             }
+            return;
         }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.applyMove(moveMade.getMove());
+        sequence = moveMade.getSequence();
+        ChessBoardPrinter.printBoard(board, whitePerspective);
     }
 
     public String eval(String input) throws ResponseException {
@@ -78,11 +120,11 @@ public class ChessClient implements ServerMessageHandler {
                         }
 
                         // parse positions
-                        ChessPosition from = new ChessPosition(
+                        ChessPosition from = ChessPosition.of(
                                 params[0].charAt(1) - '0',
                                 params[0].charAt(0) - ('a' - 1)
                         );
-                        ChessPosition to   = new ChessPosition(
+                        ChessPosition to   = ChessPosition.of(
                                 params[1].charAt(1) - '0',
                                 params[1].charAt(0) - ('a' - 1)
                         );
@@ -111,7 +153,7 @@ public class ChessClient implements ServerMessageHandler {
                             int row = Integer.parseInt(params[0]);
                             int col = Integer.parseInt(params[1]);
                             // This is a local UI operation.
-                            ChessPosition position = new ChessPosition(row, col);
+                            ChessPosition position = ChessPosition.of(row, col);
                             ChessGame game = new ChessGame();
                             game.setBoard(board);
                             Collection<ChessMove> moves = game.validMoves(position);
@@ -132,7 +174,7 @@ public class ChessClient implements ServerMessageHandler {
                 return switch (cmd) {
                     case "login" -> login(params);
                     case "register" -> register(params);
-                    case "list" -> listGames();
+                    case "list" -> listGames(params);
                     case "create" -> createGame(params);
                     case "join" -> joinGame(params);
                     case "observe" -> observeGame(params);
@@ -180,34 +222,41 @@ public class ChessClient implements ServerMessageHandler {
         throw new ResponseException(400, "Unable to register");
     }
 
-    public String listGames() throws ResponseException {
+    public String listGames(String... params) throws ResponseException {
         assertSignedIn();
-        var games = server.listGames().games();
+        boolean more = params.length > 0 && params[0].equalsIgnoreCase("more");
+        if (more && nextGamesCursor == null) {
+            return "No more games.";
+        }
+        var page = server.listGames(more ? nextGamesCursor : null);
+        var games = page.games();
+        nextGamesCursor = page.nextCursor();
         StringBuilder result = new StringBuilder();
-        // Clear previous mapping.
-        lastGameIds.clear();
+        if (!more) {
+            // Clear previous mapping; "list more" keeps numbering after the last page.
+            lastGameIds.clear();
+        }
 
         if (games == null || games.isEmpty()) {
             return "No games available.";
         }
 
-        int index = 1;
+        int index = lastGameIds.size() + 1;
         for (var game : games) {
             // Save the actual game ID.
             lastGameIds.add(game.gameID());
             result.append(index).append(". ")
                     .append("Game Name: ").append(game.gameName());
 
-            if (game.game() != null && game.game().getTeamTurn() != null) {
-                result.append(" - Turn: ").append(game.game().getTeamTurn());
-            }
-
             result.append("\n   Players: ");
             result.append("\nWhite: ").append(game.whiteUsername() != null ? game.whiteUsername() : "None");
             result.append("\nBlack: ").append(game.blackUsername() != null ? game.blackUsername() : "None");
             result.append("\n");
             index++;
         }
+        if (nextGamesCursor != null) {
+            result.append("Type \"list more\" for more games.\n");
+        }
         return result.toString();
     }
 
@@ -318,7 +367,7 @@ public class ChessClient implements ServerMessageHandler {
         }
         return """
                 - create <NAME> - a game
-                - list - games
+                - list [more] - games, or the next page of them
                 - join <game number> - join a game as a player (default: WHITE)
                 - observe <game number> - observe a game as a spectator
                 - logout - when you are done
@@ -1,11 +1,12 @@
 package ui;
 
-import com.google.gson.Gson;
+import json.ChessGson;
 import model.*;
 import exception.ResponseException;
 
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 
@@ -55,6 +56,17 @@ public class ServerFacade {
         return this.makeRequest("GET", "/game", null, GameListResponse.class);
     }
 
+    /**
+     * @param cursor the nextCursor of the page before, or null for the first page
+     */
+    public GameListResponse listGames(String cursor) throws ResponseException {
+        if (cursor == null) {
+            return listGames();
+        }
+        String query = "?cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+        return this.makeRequest("GET", "/game" + query, null, GameListResponse.class);
+    }
+
 
     private <T> T makeRequest(String method, String path, Object request, Class<T> responseClass) throws ResponseException {
         try {
@@ -79,7 +91,7 @@ public class ServerFacade {
     private static void writeBody(Object request, HttpURLConnection http) throws IOException {
         if (request != null) {
             http.addRequestProperty("Content-Type", "application/json");
-            String reqData = new Gson().toJson(request);
+            String reqData = ChessGson.GSON.toJson(request);
             try (OutputStream reqBody = http.getOutputStream()) {
                 reqBody.write(reqData.getBytes());
             }
@@ -105,7 +117,7 @@ public class ServerFacade {
         }
         try (InputStream respBody = http.getInputStream()) {
             InputStreamReader reader = new InputStreamReader(respBody);
-            return new Gson().fromJson(reader, responseClass);
+            return ChessGson.GSON.fromJson(reader, responseClass);
         }
     }
 
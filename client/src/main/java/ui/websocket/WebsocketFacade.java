@@ -2,6 +2,7 @@ package ui.websocket;
 
 import chess.ChessMove;
 import com.google.gson.Gson;
+import json.ChessGson;
 import exception.ResponseException;
 import websocket.commands.*;
 import websocket.commands.Connect;
@@ -16,7 +17,7 @@ public class WebsocketFacade extends Endpoint {
 
     private Session session;
     private final ServerMessageHandler notificationHandler;
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessGson.GSON;
     String authtoken;
 
     public WebsocketFacade(String url, ServerMessageHandler notificationHandler, String authtoken) throws ResponseException {
@@ -50,7 +51,8 @@ public class WebsocketFacade extends Endpoint {
 
     public void joinGame(int gameID) throws ResponseException {
         try {
-            Connect command = new Connect(authtoken, gameID);
+            // ask for just the move after each move; the client keeps its own board up to date
+            Connect command = new Connect(authtoken, gameID, true);
             String json = gson.toJson(command);
             this.session.getBasicRemote().sendText(json);
         } catch (IOException ex) {
@@ -81,6 +83,17 @@ public class WebsocketFacade extends Endpoint {
         }
     }
 
+    // Asks for the whole board again, after missing a move.
+    public void resync(int gameID) throws ResponseException {
+        try {
+            Resync command = new Resync(authtoken, gameID);
+            String json = gson.toJson(command);
+            this.session.getBasicRemote().sendText(json);
+        } catch (IOException ex) {
+            throw new ResponseException(500, ex.getMessage());
+        }
+    }
+
     // Resigns from a game.
     public void resignGame(int gameID) throws ResponseException {
         try {
@@ -6,6 +6,8 @@ public class Main {
         var piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         System.out.println("♕ 240 Chess Server: " + piece);
         Server server = new Server();
+        // write back games with unsaved moves when the process is stopped
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
         int port = server.run(8080);
     }
 }
\ No newline at end of file
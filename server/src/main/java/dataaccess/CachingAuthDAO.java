@@ -0,0 +1,157 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps recently used auth tokens in memory in front of another {@link AuthDAO}, so
+ * checking the same token over and over doesn't go to the database each time.
+ * <p>
+ * An entry is trusted for at most ttl after it was loaded, which bounds how long a token
+ * deleted by another server can still be used here. Tokens deleted through this DAO, and
+ * everything on clear, are dropped at once. Tokens that don't exist are not cached, so a
+ * new token is never hidden by an earlier miss. The cache holds at most maxSize tokens.
+ */
+public class CachingAuthDAO implements AuthDAO {
+    private final AuthDAO delegate;
+    private final long ttlNanos;
+    private final int maxSize;
+
+    private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+    // bumped by every delete and clear, so a load that raced with one isn't cached
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingAuthDAO(AuthDAO delegate, long ttlMillis, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.delegate = delegate;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws ResponseException {
+        delegate.createAuth(auth);
+        // a new token is usually checked right away
+        cache(auth, invalidations.get());
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws ResponseException {
+        if (authToken == null) {
+            return delegate.getAuth(null);
+        }
+        Entry entry = cache.get(authToken);
+        if (entry != null) {
+            if (System.nanoTime() - entry.loadedAt() < ttlNanos) {
+                hits.increment();
+                return entry.auth();
+            }
+            cache.remove(authToken, entry);
+        }
+        misses.increment();
+        long seen = invalidations.get();
+        AuthData auth = delegate.getAuth(authToken);
+        if (auth != null) {
+            cache(auth, seen);
+        }
+        return auth;
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws ResponseException {
+        invalidate(authToken);
+        try {
+            delegate.deleteAuth(authToken);
+        } finally {
+            // again, in case a read cached the token while it was being deleted
+            invalidate(authToken);
+        }
+    }
+
+    @Override
+    public void clear() throws ResponseException {
+        invalidations.incrementAndGet();
+        cache.clear();
+        try {
+            delegate.clear();
+        } finally {
+            invalidations.incrementAndGet();
+            cache.clear();
+        }
+    }
+
+    @Override
+    public HashSet<AuthData> listAuths() throws ResponseException {
+        return delegate.listAuths();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return entries dropped to make room for others, not counting expired ones
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @param seen the invalidation count read before the token was loaded
+     */
+    private void cache(AuthData auth, long seen) {
+        if (auth.authToken() == null) {
+            return;
+        }
+        if (cache.size() >= maxSize) {
+            makeRoom();
+        }
+        cache.put(auth.authToken(), new Entry(auth, System.nanoTime()));
+        if (invalidations.get() != seen) {
+            // deleted or cleared while it was loading; it may no longer exist
+            cache.remove(auth.authToken());
+        }
+    }
+
+    private void makeRoom() {
+        long now = System.nanoTime();
+        cache.values().removeIf(entry -> now - entry.loadedAt() >= ttlNanos);
+        // still full of live tokens: drop whichever come first, a tenth of the cache at a
+        // time so the scan above isn't repeated on every insert
+        int target = maxSize - Math.max(1, maxSize / 10);
+        for (Iterator<Entry> entries = cache.values().iterator(); entries.hasNext() && cache.size() > target; ) {
+            entries.next();
+            entries.remove();
+            evictions.increment();
+        }
+    }
+
+    private void invalidate(String authToken) {
+        invalidations.incrementAndGet();
+        if (authToken != null) {
+            cache.remove(authToken);
+        }
+    }
+
+    private record Entry(AuthData auth, long loadedAt) {
+    }
+}
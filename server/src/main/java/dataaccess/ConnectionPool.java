@@ -0,0 +1,346 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of database connections. Connections handed out by
+ * {@link #getConnection()} go back to the pool when they are closed, so callers keep
+ * using try-with-resources exactly as they would with a fresh connection.
+ * <p>
+ * At most maxSize connections are open at once, idle or borrowed; a caller that finds
+ * them all in use waits up to maxWait and then gets a 503. A connection that has sat idle for a
+ * while is checked with {@link Connection#isValid(int)} before it is handed out, and a
+ * background task closes connections idle longer than idleTimeout while keeping minIdle
+ * of them open.
+ */
+public class ConnectionPool {
+    // connections used within this long are trusted without a validation round trip
+    private static final long VALIDATE_AFTER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // how often a borrower waiting on a full pool checks whether a slot has freed up
+    private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Connector connector;
+    private final String catalog;
+    private final int minIdle;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final long maxWaitNanos;
+    private final int validationTimeoutSeconds;
+
+    // most recently returned first, so the warmest connections are reused
+    private final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    // counts a connection from just before it is opened until it is discarded
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder discardedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * Opens a new connection to the database server
+     */
+    interface Connector {
+        Connection connect() throws SQLException;
+    }
+
+    ConnectionPool(String url, String user, String password, String catalog, int minIdle, int maxSize,
+                   long idleTimeoutMillis, long maxWaitMillis, int validationTimeoutSeconds) {
+        this(() -> DriverManager.getConnection(url, user, password), catalog, minIdle, maxSize,
+                idleTimeoutMillis, maxWaitMillis, validationTimeoutSeconds);
+    }
+
+    ConnectionPool(Connector connector, String catalog, int minIdle, int maxSize,
+                   long idleTimeoutMillis, long maxWaitMillis, int validationTimeoutSeconds) {
+        if (maxSize < 1 || minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Pool sizes must satisfy 0 <= minIdle <= maxSize and maxSize >= 1");
+        }
+        this.connector = connector;
+        this.catalog = catalog;
+        this.minIdle = minIdle;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+
+        ScheduledExecutorService housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        housekeeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, opening a new one if none is idle. Closing the returned
+     * connection gives it back to the pool.
+     *
+     * @throws ResponseException with status 503 if no connection frees up within maxWait,
+     *                           or 500 if one can't be opened
+     */
+    Connection getConnection() throws ResponseException {
+        long start = System.nanoTime();
+        long deadline = start + maxWaitNanos;
+        try {
+            if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw timedOut();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseException(500, "Interrupted waiting for a database connection");
+        }
+        waitNanos.add(System.nanoTime() - start);
+
+        try {
+            Connection connection = takeIdle();
+            while (connection == null) {
+                if (reserveOpen()) {
+                    connection = open();
+                    break;
+                }
+                // every slot is open but we hold a permit, so a connection is on its way back
+                // to idle, or being opened or closed by the housekeeper
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw timedOut();
+                }
+                IdleConnection candidate = idle.pollFirst(Math.min(remaining, RECHECK_NANOS), TimeUnit.NANOSECONDS);
+                if (candidate != null) {
+                    connection = checkIdle(candidate);
+                }
+            }
+            borrowCount.increment();
+            return lease(connection);
+        } catch (InterruptedException e) {
+            permits.release();
+            Thread.currentThread().interrupt();
+            throw new ResponseException(500, "Interrupted waiting for a database connection");
+        } catch (ResponseException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return connections currently borrowed
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return connections currently open, idle or borrowed
+     */
+    public int getOpenCount() {
+        return openCount.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    /**
+     * @return connections closed because they failed validation, sat idle too long, or
+     * were returned in a state that could not be reset
+     */
+    public long getDiscardedCount() {
+        return discardedCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    /**
+     * @return total time callers have spent waiting for a free connection, in nanoseconds
+     */
+    public long getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    private Connection takeIdle() {
+        IdleConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            Connection connection = checkIdle(candidate);
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the idle connection if it is still usable; otherwise it is discarded and null
+     */
+    private Connection checkIdle(IdleConnection candidate) {
+        if (System.nanoTime() - candidate.since() < VALIDATE_AFTER_IDLE_NANOS || isValid(candidate.connection())) {
+            return candidate.connection();
+        }
+        discard(candidate.connection());
+        return null;
+    }
+
+    /**
+     * Claims a slot for a new connection, so borrowers and the housekeeper opening at the
+     * same time can't take the pool past maxSize
+     *
+     * @return False if maxSize connections are already open
+     */
+    private boolean reserveOpen() {
+        int open;
+        do {
+            open = openCount.get();
+            if (open >= maxSize) {
+                return false;
+            }
+        } while (!openCount.compareAndSet(open, open + 1));
+        return true;
+    }
+
+    /**
+     * Opens a connection in a slot claimed with {@link #reserveOpen()}, giving the slot
+     * back if it fails
+     */
+    private Connection open() throws ResponseException {
+        Connection connection = null;
+        try {
+            connection = connector.connect();
+            connection.setCatalog(catalog);
+            createdCount.increment();
+            return connection;
+        } catch (SQLException e) {
+            openCount.decrementAndGet();
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // the connection is already unusable
+                }
+            }
+            throw new ResponseException(500, e.getMessage());
+        }
+    }
+
+    private ResponseException timedOut() {
+        timeoutCount.increment();
+        return new ResponseException(503, "Error: timed out waiting for a database connection; all "
+                + maxSize + " are in use");
+    }
+
+    private Connection lease(Connection connection) {
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (returned.compareAndSet(false, true)) {
+                                giveBack(connection);
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned.get() || connection.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Pooled" + connection;
+                        default:
+                            if (returned.get()) {
+                                throw new SQLException("Connection has been returned to the pool");
+                            }
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    private void giveBack(Connection connection) {
+        try {
+            // the next borrower expects a connection in its default state
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (!catalog.equals(connection.getCatalog())) {
+                connection.setCatalog(catalog);
+            }
+            idle.offerFirst(new IdleConnection(connection, System.nanoTime()));
+        } catch (SQLException e) {
+            discard(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        // the oldest connections sit at the back of the deque
+        IdleConnection candidate;
+        while (idle.size() > minIdle && (candidate = idle.peekLast()) != null
+                && now - candidate.since() > idleTimeoutNanos) {
+            if (idle.removeLastOccurrence(candidate)) {
+                discard(candidate.connection());
+            }
+        }
+        while (openCount.get() < minIdle && reserveOpen()) {
+            try {
+                idle.offerLast(new IdleConnection(open(), now));
+            } catch (ResponseException e) {
+                // the database is unreachable; borrowers will see the error themselves
+                break;
+            }
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Connection connection) {
+        openCount.decrementAndGet();
+        discardedCount.increment();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // the connection is already unusable
+        }
+    }
+
+    private record IdleConnection(Connection connection, long since) {
+    }
+}
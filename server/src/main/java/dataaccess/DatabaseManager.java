@@ -13,9 +13,11 @@ public class DatabaseManager {
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final ConnectionPool POOL;
 
     /*
-     * Load the database information for the db.properties file.
+     * Load the database information for the db.properties file. The db.pool.* keys are
+     * optional and tune the connection pool.
      */
     static {
         try {
@@ -30,6 +32,13 @@ public class DatabaseManager {
                 var port = Integer.parseInt(props.getProperty("db.port"));
                 CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
 
+                POOL = new ConnectionPool(CONNECTION_URL, USER, PASSWORD, DATABASE_NAME,
+                        Integer.parseInt(props.getProperty("db.pool.minIdle", "2")),
+                        Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                        Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "600000")),
+                        Long.parseLong(props.getProperty("db.pool.maxWaitMillis", "5000")),
+                        Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", "2")));
+
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
@@ -42,8 +51,9 @@ public class DatabaseManager {
     static void createDatabase() throws ResponseException {
         try {
             var statement = "CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME;
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            try (var preparedStatement = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
+            // the pool's connections open the database itself, so this one goes straight to the server
+            try (var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+                 var preparedStatement = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
                 preparedStatement.executeUpdate();
             }
         } catch (SQLException e) {
@@ -52,9 +62,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Borrow a connection to the database from the pool, with the catalog set based
+     * upon the properties specified in db.properties. Connections to the database should
+     * be short-lived, and you must close the connection when you are done with it so it
+     * goes back to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -64,12 +75,13 @@ public class DatabaseManager {
      * </code>
      */
     static Connection getConnection() throws ResponseException {
-        try {
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            conn.setCatalog(DATABASE_NAME);
-            return conn;
-        } catch (SQLException e) {
-            throw new ResponseException(500, e.getMessage());
-        }
+        return POOL.getConnection();
+    }
+
+    /**
+     * @return the connection pool, for reporting its metrics
+     */
+    public static ConnectionPool getPool() {
+        return POOL;
     }
-}
\ No newline at end of file
+}
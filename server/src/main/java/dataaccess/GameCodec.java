@@ -0,0 +1,148 @@
+package dataaccess;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import json.ChessGson;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts games to and from the bytes stored in the game table's chessGame column.
+ * <p>
+ * A game is written as one format byte, one flags byte (side to move, game over), the
+ * ply as two bytes, and the board packed into 32 bytes, a nibble per square from a1 to
+ * h8: 0 for an empty square, otherwise one of the twelve piece kinds. The first binary
+ * format had no ply and is still read, as ply 0. Rows written before the binary format
+ * hold the game as Gson JSON, which always starts with '{', so {@link #decode(byte[])}
+ * can tell the two apart and still reads the old rows.
+ * <p>
+ * Moves for the game_move table are packed into a short: the start square in the low six
+ * bits, the end square in the next six, and the promotion piece above that.
+ */
+public final class GameCodec {
+    private static final byte FORMAT_VERSION = 2;
+    private static final byte FORMAT_VERSION_WITHOUT_PLY = 1;
+    private static final int FLAG_BLACK_TO_MOVE = 1;
+    private static final int FLAG_GAME_OVER = 1 << 1;
+    private static final int HEADER_LENGTH = 4;
+    private static final int HEADER_LENGTH_WITHOUT_PLY = 2;
+    private static final int MAX_PLY = 0xFFFF;
+
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private GameCodec() {
+    }
+
+    public static byte[] encode(ChessGame game) {
+        if (game.getPly() > MAX_PLY) {
+            throw new IllegalArgumentException("Game is too long to encode: " + game.getPly() + " moves");
+        }
+        byte[] bytes = new byte[HEADER_LENGTH + 32];
+        bytes[0] = FORMAT_VERSION;
+        int flags = 0;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= FLAG_BLACK_TO_MOVE;
+        }
+        if (game.isGameOver()) {
+            flags |= FLAG_GAME_OVER;
+        }
+        bytes[1] = (byte) flags;
+        bytes[2] = (byte) (game.getPly() >> 8);
+        bytes[3] = (byte) game.getPly();
+
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(ChessPosition.of(square / 8 + 1, square % 8 + 1));
+            if (piece != null) {
+                int code = piece.getTeamColor().ordinal() * TYPES.length + piece.getPieceType().ordinal() + 1;
+                bytes[HEADER_LENGTH + square / 2] |= (byte) ((square & 1) == 0 ? code : code << 4);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @param bytes the column value, in either the binary format or legacy JSON
+     * @return the stored game, or null if the column was null
+     * @throws IllegalArgumentException if the bytes are in neither format
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (isLegacy(bytes)) {
+            return decodeJson(new String(bytes, StandardCharsets.UTF_8));
+        }
+        int headerLength;
+        int ply;
+        if (bytes.length == HEADER_LENGTH + 32 && bytes[0] == FORMAT_VERSION) {
+            headerLength = HEADER_LENGTH;
+            ply = (bytes[2] & 0xFF) << 8 | bytes[3] & 0xFF;
+        } else if (bytes.length == HEADER_LENGTH_WITHOUT_PLY + 32 && bytes[0] == FORMAT_VERSION_WITHOUT_PLY) {
+            headerLength = HEADER_LENGTH_WITHOUT_PLY;
+            ply = 0;
+        } else {
+            throw new IllegalArgumentException("Unrecognized game encoding");
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int packed = bytes[headerLength + square / 2];
+            int code = ((square & 1) == 0 ? packed : packed >> 4) & 0xF;
+            if (code != 0) {
+                if (code > COLORS.length * TYPES.length) {
+                    throw new IllegalArgumentException("Unrecognized piece code " + code);
+                }
+                ChessPiece piece = ChessPiece.of(COLORS[(code - 1) / TYPES.length], TYPES[(code - 1) % TYPES.length]);
+                board.addPiece(ChessPosition.of(square / 8 + 1, square % 8 + 1), piece);
+            }
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn((bytes[1] & FLAG_BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setGameOver((bytes[1] & FLAG_GAME_OVER) != 0);
+        game.setPly(ply);
+        return game;
+    }
+
+    public static short encodeMove(ChessMove move) {
+        int promotion = move.getPromotionPiece() == null ? 0 : move.getPromotionPiece().ordinal() + 1;
+        return (short) (square(move.getStartPosition()) | square(move.getEndPosition()) << 6 | promotion << 12);
+    }
+
+    public static ChessMove decodeMove(short encoded) {
+        int from = encoded & 0x3F;
+        int to = encoded >> 6 & 0x3F;
+        int promotion = encoded >> 12 & 0x7;
+        if (promotion > TYPES.length) {
+            throw new IllegalArgumentException("Unrecognized promotion code " + promotion);
+        }
+        return new ChessMove(ChessPosition.of(from / 8 + 1, from % 8 + 1), ChessPosition.of(to / 8 + 1, to % 8 + 1),
+                promotion == 0 ? null : TYPES[promotion - 1]);
+    }
+
+    private static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
+
+    /**
+     * @return True if the bytes hold a game written as JSON, before the binary format
+     */
+    public static boolean isLegacy(byte[] bytes) {
+        for (byte b : bytes) {
+            if (!Character.isWhitespace(b)) {
+                return b == '{';
+            }
+        }
+        return false;
+    }
+
+    private static ChessGame decodeJson(String serializedGame) {
+        // the board adapter also reads boards written as an 8x8 array, before the bitboard layout
+        return ChessGson.GSON.fromJson(serializedGame, ChessGame.class);
+    }
+}
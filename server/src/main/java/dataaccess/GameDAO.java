@@ -1,22 +1,48 @@
 package dataaccess;
 
 import model.GameData;
+import model.GameFilter;
+import model.GameMove;
+import model.GameSummary;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 
 public interface GameDAO {
-    void createGame(GameData game)throws ResponseException;
+    /**
+     * Stores a new game under a newly allocated ID; the gameID it carries is ignored
+     *
+     * @return the new game's ID
+     */
+    int createGame(GameData game) throws ResponseException;
 
     GameData getGame(int gameID) throws ResponseException;
 
     void updateGame(GameData game) throws ResponseException;
 
+    void updateGames(Collection<GameData> games) throws ResponseException;
+
+    void appendMoves(Collection<GameMove> moves) throws ResponseException;
+
+    /**
+     * @return the moves written back for the game, oldest first; moves still held in
+     * memory by the game service are not included until it flushes them
+     */
+    List<GameMove> listMoves(int gameID) throws ResponseException;
+
     void clear() throws ResponseException;
 
     boolean gameExists(int gameID) throws ResponseException;
 
     HashSet<GameData> listGames() throws ResponseException;
 
+    /**
+     * @param afterGameID only games with a higher ID are listed
+     * @return up to limit games matching the filter, in gameID order, without their boards
+     */
+    List<GameSummary> listGameSummaries(GameFilter filter, int afterGameID, int limit) throws ResponseException;
+
     void removePlayer(int gameID, String color) throws ResponseException;
 
 }
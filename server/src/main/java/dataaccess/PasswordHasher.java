@@ -0,0 +1,146 @@
+package dataaccess;
+
+import metrics.LatencyHistogram;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt on a small pool of its own threads. BCrypt is slow on purpose, so a burst
+ * of logins hashing on the request threads would hold up every other endpoint; here at
+ * most threads hashes run at once, at most queueLimit more wait, and anything beyond
+ * that is turned away with a 503 instead of piling up.
+ * <p>
+ * The caller still waits for its own result, up to maxWait, but only password checks
+ * compete for the hashing threads. A password still waiting when maxWait runs out is
+ * taken off the queue and never hashed.
+ */
+public class PasswordHasher {
+
+    public static final PasswordHasher SHARED = new PasswordHasher(
+            Integer.getInteger("chess.bcrypt.cost", 10),
+            Integer.getInteger("chess.bcrypt.threads", Runtime.getRuntime().availableProcessors()),
+            Integer.getInteger("chess.bcrypt.queueLimit", 64),
+            Long.getLong("chess.bcrypt.maxWaitMillis", 10_000));
+
+    private final int cost;
+    private final long maxWaitNanos;
+    private final ThreadPoolExecutor pool;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram hashLatency = new LatencyHistogram();
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+
+    /**
+     * @param cost the BCrypt work factor for new hashes; each step doubles the work
+     */
+    public PasswordHasher(int cost, int threads, int queueLimit, long maxWaitMillis) {
+        if (cost < 4 || cost > 30) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 30");
+        }
+        this.cost = cost;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return a salted BCrypt hash of the password
+     * @throws ResponseException with status 503 if too many passwords are already waiting
+     */
+    public String hash(String password) throws ResponseException {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    /**
+     * @return True if the password matches the hash, at whatever cost the hash was made with
+     * @throws ResponseException with status 503 if too many passwords are already waiting
+     */
+    public boolean matches(String password, String hashedPassword) throws ResponseException {
+        return run(() -> BCrypt.checkpw(password, hashedPassword));
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return how long each hash or check took to run
+     */
+    public LatencyHistogram getHashLatency() {
+        return hashLatency;
+    }
+
+    /**
+     * @return how long each password waited for a hashing thread
+     */
+    public LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    public int getQueuedCount() {
+        return pool.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    private <T> T run(Callable<T> work) throws ResponseException {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result = pool.submit(() -> {
+                long start = System.nanoTime();
+                queueLatency.record(start - submitted);
+                try {
+                    return work.call();
+                } finally {
+                    hashLatency.record(System.nanoTime() - start);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseException(503, "Error: too many logins at once, try again shortly");
+        }
+        try {
+            return result.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            // a cancelled task would otherwise hold its queue slot until a thread reached it
+            pool.remove((Runnable) result);
+            rejected.increment();
+            throw new ResponseException(503, "Error: too many logins at once, try again shortly");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ResponseException(500, "Error: interrupted while checking password");
+        } catch (ExecutionException e) {
+            throw new ResponseException(500, "Error checking password: " + e.getCause().getMessage());
+        }
+    }
+}
@@ -3,39 +3,35 @@ package dataaccess;
 import model.AuthData;
 
 import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class RamAuthDAO implements AuthDAO {
 
-    private HashSet<AuthData> database;
+    private final ConcurrentHashMap<String, AuthData> database;
 
     public RamAuthDAO() {
-        database = new HashSet<>(16);
+        database = new ConcurrentHashMap<>(16);
     }
 
     @Override
     public void createAuth(AuthData auth) {
-        database.add(auth);
+        database.put(auth.authToken(), auth);
     }
 
     @Override
     public AuthData getAuth(String authToken) throws ResponseException {
-        for (AuthData auth : database) {
-            if (auth.authToken().equals(authToken)) {
-                return auth;
-            }
-        };
-        throw new ResponseException(401, "Auth token does not exist: " + authToken);
+        AuthData auth = authToken == null ? null : database.get(authToken);
+        if (auth == null) {
+            throw new ResponseException(401, "Auth token does not exist: " + authToken);
+        }
+        return auth;
     }
 
     @Override
     public void deleteAuth(String authToken) throws ResponseException {
-        for (AuthData auth : database) {
-            if (auth.authToken().equals(authToken)) {
-                database.remove(auth);
-                return;
-            }
+        if (authToken == null || database.remove(authToken) == null) {
+            throw new ResponseException(500, "User is not logged in");
         }
-        throw new ResponseException(500, "User is not logged in");
     }
 
     @Override
@@ -45,6 +41,6 @@ public class RamAuthDAO implements AuthDAO {
 
     @Override
     public HashSet<AuthData> listAuths() {
-        return new HashSet<>(database);
+        return new HashSet<>(database.values());
     }
 }
@@ -1,60 +1,127 @@
 package dataaccess;
 
+import chess.ChessGame;
 import model.GameData;
+import model.GameFilter;
+import model.GameMove;
+import model.GameSummary;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Keeps games in memory, keyed by gameID, and is safe to share between threads. Each
+ * game's move log is keyed by ply, so appending a batch again, as a retried write-behind
+ * flush does, replaces the moves rather than repeating them, as the SQL DAO's upsert does.
+ */
 public class RamGameDAO implements GameDAO {
 
-    private HashSet<GameData> database;
+    private final ConcurrentHashMap<Integer, GameData> database;
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListMap<Integer, GameMove>> moves;
+    private final AtomicInteger nextGameID = new AtomicInteger(1);
 
     public RamGameDAO() {
-        database = new HashSet<>(16);
+        database = new ConcurrentHashMap<>(16);
+        moves = new ConcurrentHashMap<>();
     }
 
     @Override
-    public void createGame(GameData game) {
-        database.add(game);
+    public int createGame(GameData game) {
+        int gameID = nextGameID.getAndIncrement();
+        database.put(gameID, new GameData(gameID, game.whiteUsername(), game.blackUsername(), game.gameName(), game.game()));
+        return gameID;
     }
 
     @Override
     public GameData getGame(int gameID) throws ResponseException {
-        for (GameData game : database) {
-            if (game.gameID() == gameID) {
-                return game;
-            }
+        GameData game = database.get(gameID);
+        if (game == null) {
+            throw new ResponseException(400, "Game id not found: " +gameID);
         }
-        throw new ResponseException(400, "Game id not found: " +gameID);
+        return withLoggedMoves(game);
     }
 
     @Override
     public void updateGame(GameData game) {
-        try {
-            database.remove(getGame(game.gameID()));
-            database.add(game);
-        } catch (ResponseException e) {
-            database.add(game);
+        database.put(game.gameID(), game);
+    }
+
+    @Override
+    public void updateGames(Collection<GameData> games) {
+        for (GameData game : games) {
+            updateGame(game);
         }
     }
 
+    @Override
+    public void appendMoves(Collection<GameMove> newMoves) {
+        for (GameMove move : newMoves) {
+            moves.computeIfAbsent(move.gameID(), id -> new ConcurrentSkipListMap<>()).put(move.ply(), move);
+        }
+    }
+
+    @Override
+    public List<GameMove> listMoves(int gameID) {
+        return loggedMoves(gameID);
+    }
+
     @Override
     public void clear() {
         database.clear();
+        moves.clear();
     }
 
     @Override
     public boolean gameExists(int gameID) {
-        for (GameData game : database) {
-            if (game.gameID() == gameID) {
-                return true;
-            }
-        }
-        return false;
+        return database.containsKey(gameID);
     }
 
     @Override
     public HashSet<GameData> listGames() {
-        return new HashSet<>(database);
+        HashSet<GameData> games = new HashSet<>();
+        for (GameData game : database.values()) {
+            games.add(withLoggedMoves(game));
+        }
+        return games;
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(GameFilter filter, int afterGameID, int limit) {
+        List<GameSummary> page = new ArrayList<>();
+        for (GameData game : database.values()) {
+            GameSummary summary = new GameSummary(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName());
+            if (game.gameID() > afterGameID && filter.matches(summary)) {
+                page.add(summary);
+            }
+        }
+        page.sort(Comparator.comparingInt(GameSummary::gameID));
+        return page.size() > limit ? new ArrayList<>(page.subList(0, limit)) : page;
+    }
+
+    // replays the moves logged after the stored snapshot, leaving the snapshot itself alone
+    private GameData withLoggedMoves(GameData snapshot) {
+        List<GameMove> logged = loggedMoves(snapshot.gameID());
+        if (snapshot.game() == null || logged.isEmpty() || logged.get(logged.size() - 1).ply() <= snapshot.game().getPly()) {
+            return snapshot;
+        }
+        ChessGame game = new ChessGame(snapshot.game());
+        for (GameMove move : logged) {
+            if (move.ply() > game.getPly()) {
+                game.applyMove(move.move());
+            }
+        }
+        return new GameData(snapshot.gameID(), snapshot.whiteUsername(), snapshot.blackUsername(), snapshot.gameName(), game);
+    }
+
+    private List<GameMove> loggedMoves(int gameID) {
+        ConcurrentSkipListMap<Integer, GameMove> logged = moves.get(gameID);
+        return logged == null ? new ArrayList<>() : new ArrayList<>(logged.values());
     }
 
     @Override
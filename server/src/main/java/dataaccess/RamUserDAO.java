@@ -1,44 +1,39 @@
 package dataaccess;
 
 import model.UserData;
+
 import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class RamUserDAO implements UserDAO {
 
-    private HashSet<UserData> database;
+    private final ConcurrentHashMap<String, UserData> database;
 
     public RamUserDAO() {
-        database = new HashSet<>(16);
+        database = new ConcurrentHashMap<>(16);
     }
 
     @Override
     public UserData getUser(String username) throws ResponseException {
-        for (UserData user : database) {
-            if (user.username().equals(username)) {
-                return user;
-            }
+        UserData user = username == null ? null : database.get(username);
+        if (user == null) {
+            throw new ResponseException(500 ,"User not found: " + username);
         }
-        throw new ResponseException(500 ,"User not found: " + username);
+        return user;
     }
 
     @Override
     public void insertUser(UserData userData) throws ResponseException {
-        for (UserData user : database) {
-            if (user.username().equals(userData.username())) {
-                throw new ResponseException(401 ,"User already exists: " + userData.username());
-            }
+        // putIfAbsent so two registrations racing for one name can't both succeed
+        if (database.putIfAbsent(userData.username(), userData) != null) {
+            throw new ResponseException(401 ,"User already exists: " + userData.username());
         }
-        database.add(userData);
     }
 
     @Override
     public boolean authenticateUser(String username, String password) throws ResponseException {
-        for (UserData user : database) {
-            if (user.username().equals(username) && user.password().equals(password)) {
-                return true;
-            }
-        }
-        return false;
+        UserData user = username == null ? null : database.get(username);
+        return user != null && user.password().equals(password);
     }
 
     @Override
@@ -48,6 +43,6 @@ public class RamUserDAO implements UserDAO {
 
     @Override
     public HashSet<UserData> listUsers() {
-        return new HashSet<>(database);
+        return new HashSet<>(database.values());
     }
 }
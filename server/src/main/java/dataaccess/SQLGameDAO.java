@@ -1,13 +1,21 @@
 package dataaccess;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
 import model.GameData;
+import model.GameFilter;
+import model.GameMove;
+import model.GameSummary;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 
+import static dataaccess.DataUpdate.executeInsert;
 import static dataaccess.DataUpdate.executeUpdate;
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
 import static java.sql.Types.NULL;
@@ -19,15 +27,20 @@ public class SQLGameDAO implements GameDAO {
     }
 
     @Override
-    public void createGame(GameData game) throws ResponseException {
-        var statement = "INSERT INTO game (gameID, whiteUsername, blackUsername, gameName, chessGame) VALUES (?, ?, ?, ?, ?)";
-        executeUpdate(statement, game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), serializeGame(game.game()));
+    public int createGame(GameData game) throws ResponseException {
+        var statement = "INSERT INTO game (whiteUsername, blackUsername, gameName, chessGame, snapshotPly) VALUES (?, ?, ?, ?, ?)";
+        return executeInsert(statement, game.whiteUsername(), game.blackUsername(), game.gameName(),
+                GameCodec.encode(game.game()), game.game().getPly());
     }
 
+    /**
+     * Reads a game's latest snapshot along with the moves logged after it, and replays
+     * them to bring the game up to date
+     */
     @Override
     public GameData getGame(int gameID) throws ResponseException {
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT * FROM game WHERE gameID=?";
+            var statement = SELECT_GAMES_WITH_MOVES + " WHERE g.gameID=? ORDER BY m.ply";
             try (var ps = conn.prepareStatement(statement)) {
                 ps.setInt(1, gameID);
                 try (var rs = ps.executeQuery()) {
@@ -42,13 +55,24 @@ public class SQLGameDAO implements GameDAO {
         return null;
     }
 
+    /**
+     * Reads one game from a result set of {@link #SELECT_GAMES_WITH_MOVES}, consuming the
+     * rows of its moves
+     *
+     * @return the game; the result set is left on the next game's first row, or past the end
+     */
     private GameData readGame(ResultSet rs) throws SQLException {
         var gameID = rs.getInt("gameID");
         var white = rs.getString("whiteUsername");
         var black = rs.getString("blackUsername");
         var name = rs.getString("gameName");
-        var game = rs.getString("chessGame");
-        ChessGame chessGame = deserializeGame(game);
+        ChessGame chessGame = GameCodec.decode(rs.getBytes("chessGame"));
+        do {
+            short move = rs.getShort("move");
+            if (!rs.wasNull()) {
+                chessGame.applyMove(GameCodec.decodeMove(move));
+            }
+        } while (rs.next() && rs.getInt("gameID") == gameID);
         return new GameData(gameID, white, black, name, chessGame);
     }
 
@@ -65,15 +89,85 @@ public class SQLGameDAO implements GameDAO {
 
     @Override
     public void updateGame(GameData game) throws ResponseException {
-        var statement = "UPDATE game SET whiteUsername=?, blackUsername=?, gameName=?, chessGame=? WHERE gameID=?";
-        String textGame = serializeGame(game.game());
-        executeUpdate(statement, game.whiteUsername(), game.blackUsername(), game.gameName(), textGame, game.gameID());
+        var statement = "UPDATE game SET whiteUsername=?, blackUsername=?, gameName=?, chessGame=?, snapshotPly=? WHERE gameID=?";
+        byte[] encodedGame = GameCodec.encode(game.game());
+        executeUpdate(statement, game.whiteUsername(), game.blackUsername(), game.gameName(), encodedGame,
+                game.game().getPly(), game.gameID());
+    }
+
+    /**
+     * Writes several games in one batch over a single connection
+     */
+    @Override
+    public void updateGames(Collection<GameData> games) throws ResponseException {
+        var statement = "UPDATE game SET whiteUsername=?, blackUsername=?, gameName=?, chessGame=?, snapshotPly=? WHERE gameID=?";
+        try (var conn = DatabaseManager.getConnection();
+             var ps = conn.prepareStatement(statement)) {
+            for (GameData game : games) {
+                ps.setString(1, game.whiteUsername());
+                ps.setString(2, game.blackUsername());
+                ps.setString(3, game.gameName());
+                ps.setBytes(4, GameCodec.encode(game.game()));
+                ps.setInt(5, game.game().getPly());
+                ps.setInt(6, game.gameID());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } catch (SQLException e) {
+            throw new ResponseException(500, String.format("unable to update games: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * Logs moves in one batch over a single connection. Logging a move again, as when a
+     * failed batch is retried, leaves one row for it.
+     */
+    @Override
+    public void appendMoves(Collection<GameMove> moves) throws ResponseException {
+        var statement = """
+                INSERT INTO game_move (gameID, ply, move, createdAt) VALUES (?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE move = VALUES(move)""";
+        try (var conn = DatabaseManager.getConnection();
+             var ps = conn.prepareStatement(statement)) {
+            for (GameMove move : moves) {
+                ps.setInt(1, move.gameID());
+                ps.setInt(2, move.ply());
+                ps.setShort(3, GameCodec.encodeMove(move.move()));
+                ps.setTimestamp(4, Timestamp.from(move.playedAt()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } catch (SQLException e) {
+            throw new ResponseException(500, String.format("unable to log moves: %s", e.getMessage()));
+        }
+    }
+
+    @Override
+    public List<GameMove> listMoves(int gameID) throws ResponseException {
+        var moves = new ArrayList<GameMove>();
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = "SELECT ply, move, createdAt FROM game_move WHERE gameID=? ORDER BY ply";
+            try (var ps = conn.prepareStatement(statement)) {
+                ps.setInt(1, gameID);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        moves.add(new GameMove(gameID, rs.getInt("ply"), GameCodec.decodeMove(rs.getShort("move")),
+                                rs.getTimestamp("createdAt").toInstant()));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new ResponseException(500, "Unable to retrieve moves: " + e.getMessage());
+        }
+        return moves;
     }
 
     @Override
     public void clear() throws ResponseException {
-        var statement = "TRUNCATE game";
-        executeUpdate(statement);
+        executeUpdate("TRUNCATE game_move");
+        // DELETE rather than TRUNCATE, which would restart the IDs; sessions and actors still
+        // keyed by an old game's ID must never be handed a new game under it
+        executeUpdate("DELETE FROM game");
     }
 
     @Override
@@ -96,11 +190,13 @@ public class SQLGameDAO implements GameDAO {
     public HashSet<GameData> listGames() throws ResponseException {
         var games = new HashSet<GameData>();
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT * FROM game";
+            var statement = SELECT_GAMES_WITH_MOVES + " ORDER BY g.gameID, m.ply";
             try (var ps = conn.prepareStatement(statement);
                  var rs = ps.executeQuery()) {
-                while (rs.next()) {
+                boolean more = rs.next();
+                while (more) {
                     games.add(readGame(rs));
+                    more = !rs.isAfterLast();
                 }
             }
         } catch (SQLException e) {
@@ -109,6 +205,53 @@ public class SQLGameDAO implements GameDAO {
         return games;
     }
 
+    /**
+     * Reads only the lobby columns, using the primary key to start after the cursor
+     */
+    @Override
+    public List<GameSummary> listGameSummaries(GameFilter filter, int afterGameID, int limit) throws ResponseException {
+        StringBuilder statement = new StringBuilder(
+                "SELECT gameID, whiteUsername, blackUsername, gameName FROM game WHERE gameID > ?");
+        List<Object> params = new ArrayList<>();
+        params.add(afterGameID);
+        if (filter.openSeatsOnly()) {
+            statement.append(" AND (whiteUsername IS NULL OR blackUsername IS NULL)");
+        }
+        if (filter.player() != null) {
+            statement.append(" AND (whiteUsername = ? OR blackUsername = ?)");
+            params.add(filter.player());
+            params.add(filter.player());
+        }
+        if (filter.namePrefix() != null) {
+            statement.append(" AND gameName LIKE ?");
+            params.add(escapeLike(filter.namePrefix()) + "%");
+        }
+        statement.append(" ORDER BY gameID LIMIT ?");
+        params.add(limit);
+
+        var games = new ArrayList<GameSummary>();
+        try (var conn = DatabaseManager.getConnection();
+             var ps = conn.prepareStatement(statement.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    games.add(new GameSummary(rs.getInt("gameID"), rs.getString("whiteUsername"),
+                            rs.getString("blackUsername"), rs.getString("gameName")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new ResponseException(500, "Unable to retrieve games: " + e.getMessage());
+        }
+        return games;
+    }
+
+    // LIKE treats % and _ as wildcards; a name prefix should match them literally
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     @Override
     public void removePlayer(int gameID, String color) throws ResponseException {
         if (color.equals("white")) {
@@ -121,27 +264,34 @@ public class SQLGameDAO implements GameDAO {
         }
     }
 
-    private String serializeGame(ChessGame game) {
-        return new Gson().toJson(game);
-    }
-
-    private ChessGame deserializeGame(String serializedGame) {
-        return new Gson().fromJson(serializedGame, ChessGame.class);
-    }
-
     private final String[] createStatements = {
             """            
             CREATE TABLE if NOT EXISTS game (
-            gameID INT NOT NULL,
+            gameID INT NOT NULL AUTO_INCREMENT,
             whiteUsername VARCHAR(256),
             blackUsername VARCHAR(256),
             gameName VARCHAR(256),
-            chessGame TEXT,
+            chessGame BLOB,
+            snapshotPly INT NOT NULL DEFAULT 0,
             PRIMARY KEY (gameID)
             )
+            """,
+            """
+            CREATE TABLE if NOT EXISTS game_move (
+            gameID INT NOT NULL,
+            ply INT NOT NULL,
+            move SMALLINT NOT NULL,
+            createdAt TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+            PRIMARY KEY (gameID, ply)
+            )
             """
     };
 
+    // each game's snapshot row, joined to the moves logged since the snapshot, one row per move
+    private static final String SELECT_GAMES_WITH_MOVES = """
+            SELECT g.gameID, g.whiteUsername, g.blackUsername, g.gameName, g.chessGame, m.move
+            FROM game g LEFT JOIN game_move m ON m.gameID = g.gameID AND m.ply > g.snapshotPly""";
+
     private void configureGameDatabase() throws ResponseException {
         DatabaseManager.createDatabase();
         try (var conn = DatabaseManager.getConnection()) {
@@ -150,8 +300,86 @@ public class SQLGameDAO implements GameDAO {
                     preparedStatement.executeUpdate();
                 }
             }
+            migrateGameColumn(conn);
+            addSnapshotPlyColumn(conn);
+            makeGameIDAutoIncrement(conn);
         } catch (SQLException ex) {
             throw new ResponseException(500, String.format("Unable to configure database: %s", ex.getMessage()));
         }
     }
+
+    /**
+     * Brings a game table from before the binary game format up to date: the chessGame
+     * column becomes a BLOB, and every game still stored as JSON is rewritten in the
+     * binary format. Tables that are already current are left alone.
+     */
+    private void migrateGameColumn(Connection conn) throws SQLException {
+        var typeQuery = """
+                SELECT DATA_TYPE FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'game' AND COLUMN_NAME = 'chessGame'
+                """;
+        try (var ps = conn.prepareStatement(typeQuery);
+             var rs = ps.executeQuery()) {
+            if (!rs.next() || rs.getString(1).equalsIgnoreCase("blob")) {
+                return;
+            }
+        }
+        try (var ps = conn.prepareStatement("ALTER TABLE game MODIFY chessGame BLOB")) {
+            ps.executeUpdate();
+        }
+
+        try (var select = conn.prepareStatement("SELECT gameID, chessGame FROM game");
+             var update = conn.prepareStatement("UPDATE game SET chessGame=? WHERE gameID=?");
+             var rs = select.executeQuery()) {
+            while (rs.next()) {
+                byte[] stored = rs.getBytes("chessGame");
+                if (stored != null && GameCodec.isLegacy(stored)) {
+                    update.setBytes(1, GameCodec.encode(GameCodec.decode(stored)));
+                    update.setInt(2, rs.getInt("gameID"));
+                    update.addBatch();
+                }
+            }
+            update.executeBatch();
+        }
+    }
+
+    /**
+     * Adds the snapshotPly column to game tables from before the move log. Their
+     * snapshots were written without a ply, so they are all at ply 0.
+     */
+    private void addSnapshotPlyColumn(Connection conn) throws SQLException {
+        var columnQuery = """
+                SELECT 1 FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'game' AND COLUMN_NAME = 'snapshotPly'
+                """;
+        try (var ps = conn.prepareStatement(columnQuery);
+             var rs = ps.executeQuery()) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        try (var ps = conn.prepareStatement("ALTER TABLE game ADD COLUMN snapshotPly INT NOT NULL DEFAULT 0")) {
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Makes the database allocate IDs for game tables from when they were drawn at
+     * random. New IDs continue after the highest one in use.
+     */
+    private void makeGameIDAutoIncrement(Connection conn) throws SQLException {
+        var extraQuery = """
+                SELECT EXTRA FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'game' AND COLUMN_NAME = 'gameID'
+                """;
+        try (var ps = conn.prepareStatement(extraQuery);
+             var rs = ps.executeQuery()) {
+            if (!rs.next() || rs.getString(1).toLowerCase().contains("auto_increment")) {
+                return;
+            }
+        }
+        try (var ps = conn.prepareStatement("ALTER TABLE game MODIFY gameID INT NOT NULL AUTO_INCREMENT")) {
+            ps.executeUpdate();
+        }
+    }
 }
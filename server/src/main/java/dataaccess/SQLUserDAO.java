@@ -1,7 +1,6 @@
 package dataaccess;
 
 import model.UserData;
-import org.mindrot.jbcrypt.*;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -13,8 +12,14 @@ import static java.sql.Statement.RETURN_GENERATED_KEYS;
 import static java.sql.Types.NULL;
 
 public class SQLUserDAO implements UserDAO {
+    private final PasswordHasher hasher;
 
     public SQLUserDAO() throws ResponseException {
+        this(PasswordHasher.SHARED);
+    }
+
+    public SQLUserDAO(PasswordHasher hasher) throws ResponseException {
+        this.hasher = hasher;
         String[] createStatements = {
                 """
             CREATE TABLE IF NOT EXISTS user (
@@ -70,8 +75,8 @@ public class SQLUserDAO implements UserDAO {
         executeUpdate(statement);
     }
 
-    private String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+    private String hashPassword(String password) throws ResponseException {
+        return hasher.hash(password);
     }
 
     private boolean passwordMatches(String cleanPW, String username) throws ResponseException {
@@ -81,7 +86,7 @@ public class SQLUserDAO implements UserDAO {
             return false;  // Or throw an exception if needed
         }
 
-        return BCrypt.checkpw(cleanPW, hashedPassword);
+        return hasher.matches(cleanPW, hashedPassword);
     }
 
     private String getUserPassword(String username) throws ResponseException {
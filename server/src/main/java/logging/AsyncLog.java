@@ -0,0 +1,232 @@
+package logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A leveled logger that hands events to a single background thread instead of writing
+ * them on the caller's. Callers put events in a bounded ring buffer without taking a
+ * lock; the background thread takes them out in order and passes them to slf4j, so only
+ * that thread ever waits on the console. When the buffer is full, new events are
+ * dropped and counted rather than making the caller wait.
+ * <p>
+ * Messages use slf4j's {} placeholders, and a Throwable as the last argument is logged
+ * with its stack trace. Arguments are formatted later on the background thread, so they
+ * should be values that won't change, like strings and numbers.
+ * <p>
+ * Logs written for every websocket message go through a {@link Sampler}, which keeps
+ * only a fraction of them.
+ */
+public final class AsyncLog {
+
+    private static final Ring RING = new Ring(Integer.getInteger("chess.log.bufferSize", 1 << 13));
+    private static final Thread DRAINER = startDrainer();
+
+    private final Logger logger;
+
+    private AsyncLog(Logger logger) {
+        this.logger = logger;
+    }
+
+    public static AsyncLog get(Class<?> owner) {
+        return new AsyncLog(LoggerFactory.getLogger(owner));
+    }
+
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
+    public void debug(String format, Object... args) {
+        if (logger.isDebugEnabled()) {
+            RING.offer(new Event(logger, Level.DEBUG, format, args));
+        }
+    }
+
+    public void info(String format, Object... args) {
+        if (logger.isInfoEnabled()) {
+            RING.offer(new Event(logger, Level.INFO, format, args));
+        }
+    }
+
+    public void warn(String format, Object... args) {
+        if (logger.isWarnEnabled()) {
+            RING.offer(new Event(logger, Level.WARN, format, args));
+        }
+    }
+
+    public void error(String format, Object... args) {
+        if (logger.isErrorEnabled()) {
+            RING.offer(new Event(logger, Level.ERROR, format, args));
+        }
+    }
+
+    /**
+     * @param oneIn keep one event in this many, chosen at random; 1 keeps them all
+     * @return a logger for high-volume events that writes only a sample of them
+     */
+    public Sampler sampled(int oneIn) {
+        return new Sampler(this, oneIn);
+    }
+
+    /**
+     * @return events thrown away because the buffer was full
+     */
+    public static long getDroppedCount() {
+        return RING.dropped.sum();
+    }
+
+    /**
+     * @return events waiting to be written
+     */
+    public static int getQueuedCount() {
+        return (int) (RING.tail.get() - RING.head);
+    }
+
+    /**
+     * Writes out everything already logged, waiting up to the timeout for it to drain
+     */
+    public static void flush(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        LockSupport.unpark(DRAINER);
+        while (getQueuedCount() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static Thread startDrainer() {
+        Thread thread = new Thread(AsyncLog::drain, "async-log");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void drain() {
+        while (true) {
+            Event event = RING.poll();
+            if (event == null) {
+                // nothing to write; sleep rather than have callers signal every event
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+                continue;
+            }
+            try {
+                event.write();
+            } catch (RuntimeException e) {
+                // a bad argument's toString must not stop the logger
+            }
+        }
+    }
+
+    /**
+     * Logs one in every few events it is given. Which ones is decided by a random draw on
+     * the caller's thread, so sampling shares no state between threads.
+     */
+    public static final class Sampler {
+        private final AsyncLog log;
+        private final int oneIn;
+
+        private Sampler(AsyncLog log, int oneIn) {
+            if (oneIn < 1) {
+                throw new IllegalArgumentException("Sample rate must be at least 1");
+            }
+            this.log = log;
+            this.oneIn = oneIn;
+        }
+
+        public void debug(String format, Object... args) {
+            if (log.isDebugEnabled() && keep()) {
+                log.debug(format, args);
+            }
+        }
+
+        public void info(String format, Object... args) {
+            if (log.isInfoEnabled() && keep()) {
+                log.info(format, args);
+            }
+        }
+
+        private boolean keep() {
+            return oneIn == 1 || ThreadLocalRandom.current().nextInt(oneIn) == 0;
+        }
+    }
+
+    private enum Level {
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR
+    }
+
+    private record Event(Logger logger, Level level, String format, Object[] args) {
+        void write() {
+            switch (level) {
+                case DEBUG -> logger.debug(format, args);
+                case INFO -> logger.info(format, args);
+                case WARN -> logger.warn(format, args);
+                case ERROR -> logger.error(format, args);
+            }
+        }
+    }
+
+    /**
+     * A bounded queue for many producers and one consumer. A producer claims the next
+     * sequence number with a compare-and-set on tail, then publishes its event into that
+     * slot; the consumer waits for a claimed slot to be published before moving past it.
+     */
+    private static final class Ring {
+        private final AtomicReferenceArray<Event> slots;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        // only written by the consumer
+        private volatile long head;
+        private final LongAdder dropped = new LongAdder();
+
+        Ring(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+            slots = new AtomicReferenceArray<>(size);
+            mask = size - 1;
+        }
+
+        void offer(Event event) {
+            long claimed;
+            do {
+                claimed = tail.get();
+                if (claimed - head >= slots.length()) {
+                    dropped.increment();
+                    return;
+                }
+            } while (!tail.compareAndSet(claimed, claimed + 1));
+            slots.set((int) claimed & mask, event);
+            if (claimed - head == slots.length() / 2) {
+                // filling faster than the drainer's naps allow for; wake it early
+                LockSupport.unpark(DRAINER);
+            }
+        }
+
+        Event poll() {
+            long next = head;
+            if (next == tail.get()) {
+                return null;
+            }
+            int slot = (int) next & mask;
+            Event event;
+            while ((event = slots.get(slot)) == null) {
+                // claimed but not yet published
+                Thread.onSpinWait();
+            }
+            slots.lazySet(slot, null);
+            head = next + 1;
+            return event;
+        }
+    }
+}
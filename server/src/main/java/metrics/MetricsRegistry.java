@@ -0,0 +1,154 @@
+package metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Holds the server's metrics and writes them in the Prometheus text format. Counters and
+ * histograms are looked up once by name and labels and then updated without locking;
+ * gauges and counters kept elsewhere (the connection pool, the move cache) are read from
+ * a supplier when scraped.
+ * <p>
+ * Histograms are written as summaries: the 50th, 90th, 99th and 99.9th percentiles in
+ * seconds, plus the sum and count.
+ */
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    // sorted so the scrape output is stable
+    private final ConcurrentSkipListMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param labels label pairs in order, e.g. "command", "MAKE_MOVE"
+     * @return the counter with that name and labels, made on first use
+     */
+    public LongAdder counter(String name, String help, String... labels) {
+        return (LongAdder) family(name, help, "counter").series.computeIfAbsent(labelString(labels),
+                key -> new LongAdder());
+    }
+
+    /**
+     * @param labels label pairs in order, e.g. "route", "/game"
+     * @return the histogram with that name and labels, made on first use
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, "summary").series.computeIfAbsent(labelString(labels),
+                key -> new LatencyHistogram());
+    }
+
+    /**
+     * Reports a histogram kept elsewhere, like the password hasher's
+     */
+    public void histogramFrom(String name, String help, LatencyHistogram histogram) {
+        family(name, help, "summary").series.put("", histogram);
+    }
+
+    /**
+     * Reports a value read at scrape time
+     */
+    public void gauge(String name, String help, DoubleSupplier value) {
+        family(name, help, "gauge").series.put("", value);
+    }
+
+    /**
+     * Reports an ever-increasing count kept elsewhere, read at scrape time
+     */
+    public void counterFrom(String name, String help, DoubleSupplier value) {
+        family(name, help, "counter").series.put("", value);
+    }
+
+    /**
+     * @return every metric in the Prometheus text exposition format
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> series : new ConcurrentSkipListMap<>(family.series).entrySet()) {
+                write(out, family.name, series.getKey(), series.getValue());
+            }
+        }
+        return out.toString();
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    private static void write(StringBuilder out, String name, String labels, Object metric) {
+        if (metric instanceof LatencyHistogram histogram) {
+            for (double quantile : QUANTILES) {
+                String quantileLabel = "quantile=\"" + quantile + "\"";
+                sample(out, name, labels.isEmpty() ? quantileLabel : labels + "," + quantileLabel,
+                        histogram.getValueAtQuantile(quantile) / NANOS_PER_SECOND);
+            }
+            sample(out, name + "_sum", labels, histogram.getSum() / NANOS_PER_SECOND);
+            sample(out, name + "_count", labels, histogram.getCount());
+        } else if (metric instanceof LongAdder counter) {
+            sample(out, name, labels, counter.sum());
+        } else if (metric instanceof DoubleSupplier supplier) {
+            sample(out, name, labels, supplier.getAsDouble());
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String labelString(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must come in name, value pairs");
+        }
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"");
+            String value = labels[i + 1] == null ? "" : labels[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                switch (ch) {
+                    case '\\' -> out.append("\\\\");
+                    case '"' -> out.append("\\\"");
+                    case '\n' -> out.append("\\n");
+                    default -> out.append(ch);
+                }
+            }
+            out.append('"');
+        }
+        return out.toString();
+    }
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final String type;
+        final ConcurrentHashMap<String, Object> series = new ConcurrentHashMap<>();
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package server;
 
 import service.GameService;
 import com.google.gson.Gson;
+import json.ChessGson;
 import dataaccess.ResponseException;
 import model.GameResponse;
 import spark.Request;
@@ -10,7 +11,7 @@ import spark.Response;
 public class CreateGameHandler {
 
     private GameService gameService;
-    private Gson gson = new Gson();
+    private final Gson gson = ChessGson.GSON;
 
     public CreateGameHandler(GameService gameService) {
         this.gameService = gameService;
@@ -0,0 +1,116 @@
+package server;
+
+import logging.AsyncLog;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs work for each game one task at a time, in the order it was submitted, on a pool
+ * of threads shared by every game. Each game gets a mailbox that is scheduled on the pool
+ * while it has tasks waiting, so tasks for one game never overlap and different games run
+ * in parallel, without any lock shared between games.
+ * <p>
+ * A mailbox runs a bounded batch of tasks before going back to the end of the pool's
+ * queue, so a busy game can't starve the others, and it is dropped once it is empty.
+ */
+public class GameActors {
+    private static final AsyncLog LOG = AsyncLog.get(GameActors.class);
+    private static final int BATCH_LIMIT = 32;
+
+    private final ExecutorService pool;
+    private final ConcurrentHashMap<Integer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * @param threads the number of pool threads; tasks may block on the database, so
+     *                this can usefully exceed the number of cores
+     */
+    public GameActors(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "game-actor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a task to run after every task already submitted for the same game
+     */
+    public void submit(int gameID, Runnable task) {
+        // added inside compute so an idle mailbox can't be dropped between lookup and add
+        Mailbox mailbox = mailboxes.compute(gameID, (id, existing) -> {
+            Mailbox target = existing != null ? existing : new Mailbox(id);
+            target.tasks.add(task);
+            return target;
+        });
+        mailbox.schedule();
+    }
+
+    /**
+     * @return the number of games with tasks waiting or running
+     */
+    public int getActiveGames() {
+        return mailboxes.size();
+    }
+
+    /**
+     * Stops taking new work and waits for the tasks already queued to finish
+     */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Mailbox implements Runnable {
+        private final int gameID;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Mailbox(int gameID) {
+            this.gameID = gameID;
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                pool.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH_LIMIT; i++) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // one bad command must not stop the game's later ones
+                    LOG.error("Task for game {} failed", gameID, e);
+                }
+            }
+            scheduled.set(false);
+            if (!tasks.isEmpty()) {
+                schedule();
+            } else {
+                mailboxes.computeIfPresent(gameID, (id, mailbox) ->
+                        mailbox == this && tasks.isEmpty() && !scheduled.get() ? null : mailbox);
+            }
+        }
+    }
+}
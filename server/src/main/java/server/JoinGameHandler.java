@@ -2,6 +2,7 @@ package server;
 
 import service.GameService;
 import com.google.gson.Gson;
+import json.ChessGson;
 import dataaccess.ResponseException;
 import model.JoinRequest;
 import spark.Request;
@@ -9,7 +10,7 @@ import spark.Response;
 
 public class JoinGameHandler {
     private GameService gameService;
-    private Gson gson = new Gson();
+    private final Gson gson = ChessGson.GSON;
 
     public JoinGameHandler(GameService gameService) {
         this.gameService = gameService;
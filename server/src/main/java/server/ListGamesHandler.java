@@ -2,14 +2,16 @@ package server;
 
 import service.GameService;
 import com.google.gson.Gson;
+import json.ChessGson;
 import dataaccess.ResponseException;
+import model.GameFilter;
 import model.GameListResponse;
 import spark.Request;
 import spark.Response;
 
 public class ListGamesHandler {
     private GameService gameService;
-    private Gson gson = new Gson();
+    private final Gson gson = ChessGson.GSON;
 
     public ListGamesHandler(GameService gameService) {
         this.gameService = gameService;
@@ -23,11 +25,27 @@ public class ListGamesHandler {
                 return gson.toJson(new ErrorResponse("Error: unauthorized"));
             }
 
+            int limit = GameService.DEFAULT_PAGE_SIZE;
+            if (req.queryParams("limit") != null) {
+                try {
+                    limit = Integer.parseInt(req.queryParams("limit"));
+                } catch (NumberFormatException e) {
+                    res.status(400);
+                    return gson.toJson(new ErrorResponse("Error: bad request"));
+                }
+            }
+            GameFilter filter = new GameFilter("true".equalsIgnoreCase(req.queryParams("open")),
+                    param(req, "player"), param(req, "name"));
+
             try {
-                GameListResponse games = gameService.listGames(authToken);
+                GameListResponse games = gameService.listGames(authToken, filter, param(req, "cursor"), limit);
                 res.status(200);
                 return gson.toJson(games);
             } catch (ResponseException e) {
+                if (e.statusCode() == 400) { // Bad cursor or limit
+                    res.status(400);
+                    return gson.toJson(new ErrorResponse(e.getMessage()));
+                }
                 res.status(401);
                 return gson.toJson(new ErrorResponse("Error: unauthorized"));
             }
@@ -37,4 +55,10 @@ public class ListGamesHandler {
             return gson.toJson(new ErrorResponse("Error: " + e.getMessage()));
         }
     }
+
+    // blank query parameters are treated as absent
+    private static String param(Request req, String name) {
+        String value = req.queryParams(name);
+        return value == null || value.isBlank() ? null : value;
+    }
 }
@@ -2,6 +2,7 @@ package server;
 
 import service.UserService;
 import com.google.gson.Gson;
+import json.ChessGson;
 import dataaccess.ResponseException;
 import model.AuthData;
 import model.LoginRequest;
@@ -10,7 +11,7 @@ import spark.Response;
 
 public class LoginHandler {
     private UserService userService;
-    private Gson gson = new Gson();
+    private final Gson gson = ChessGson.GSON;
 
     public LoginHandler(UserService userService) {
         this.userService = userService;
@@ -30,6 +31,11 @@ public class LoginHandler {
                 res.status(200);
                 return gson.toJson(userResponse);
             } catch (ResponseException e) { // Catch authentication failure
+                if (e.statusCode() == 503) { // Password hashing is saturated
+                    res.status(503);
+                    res.header("Retry-After", "1");
+                    return gson.toJson(new ErrorResponse(e.getMessage()));
+                }
                 res.status(401);
                 return gson.toJson(new ErrorResponse("Error: unauthorized"));
             }
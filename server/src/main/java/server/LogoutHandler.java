@@ -2,13 +2,14 @@ package server;
 
 import service.UserService;
 import com.google.gson.Gson;
+import json.ChessGson;
 import dataaccess.ResponseException;
 import spark.Request;
 import spark.Response;
 
 public class LogoutHandler {
     private UserService userService;
-    private Gson gson = new Gson();
+    private final Gson gson = ChessGson.GSON;
 
     public LogoutHandler(UserService userService) {
         this.userService = userService;
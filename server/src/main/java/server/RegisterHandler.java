@@ -2,6 +2,7 @@ package server;
 
 import service.UserService;
 import com.google.gson.Gson;
+import json.ChessGson;
 import dataaccess.ResponseException;
 import model.AuthData;
 import model.UserData;
@@ -11,7 +12,7 @@ import spark.Response;
 public class RegisterHandler {
 
     private UserService userService;
-    private Gson gson = new Gson();
+    private final Gson gson = ChessGson.GSON;
 
     public RegisterHandler(UserService userService) {
         this.userService = userService;
@@ -31,6 +32,11 @@ public class RegisterHandler {
                 res.status(200);
                 return gson.toJson(userResponse);
             } catch (ResponseException e) { // Catch user already exists error
+                if (e.statusCode() == 503) { // Password hashing is saturated
+                    res.status(503);
+                    res.header("Retry-After", "1");
+                    return gson.toJson(new ErrorResponse(e.getMessage()));
+                }
                 res.status(403);
                 return gson.toJson(new ErrorResponse("Error: already taken"));
             }
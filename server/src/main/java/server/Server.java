@@ -1,14 +1,16 @@
 package server;
 
 import dataaccess.*;
+import chess.MoveCache;
+import logging.AsyncLog;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import spark.*;
-import org.eclipse.jetty.websocket.api.Session;
 import service.GameService;
 import service.UserService;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 public class Server {
+    private static final AsyncLog LOG = AsyncLog.get(Server.class);
 
     private final CreateGameHandler createGameHandler;
     private final RegisterHandler registerHandler;
@@ -17,19 +19,24 @@ public class Server {
     private final LoginHandler loginHandler;
     private final LogoutHandler logoutHandler;
     private final WebsocketHandler webSocketHandler;
+    private final GameActors gameActors;
+    private final MetricsRegistry metrics = new MetricsRegistry();
 
     static UserService userService;
     static GameService gameService;
 
-    static ConcurrentHashMap<Session, Integer> gameSessions = new ConcurrentHashMap<>();
+    static SessionRegistry sessions = new SessionRegistry();
 
     public Server() {
         UserDAO userDAO;
-        AuthDAO authDAO;
+        CachingAuthDAO authDAO;
         GameDAO gameDAO;
         try {
             userDAO = new SQLUserDAO();
-            authDAO = new SQLAuthDAO();
+            // every request checks its token, usually one already checked moments ago
+            authDAO = new CachingAuthDAO(new SQLAuthDAO(),
+                    Long.getLong("chess.authCache.ttlMillis", 60_000),
+                    Integer.getInteger("chess.authCache.maxSize", 10_000));
             gameDAO = new SQLGameDAO();
         } catch (ResponseException e) {
             throw new RuntimeException(e);
@@ -47,8 +54,12 @@ public class Server {
         logoutHandler = new LogoutHandler(userService);
         loginHandler = new LoginHandler(userService);
 
-        webSocketHandler = new WebsocketHandler();
+        // websocket commands may block on the database, so there are more threads than cores
+        gameActors = new GameActors(Integer.getInteger("chess.gameActorThreads",
+                Math.max(4, Runtime.getRuntime().availableProcessors() * 2)));
+        webSocketHandler = new WebsocketHandler(gameActors, metrics);
 
+        registerGauges(authDAO);
     }
 
     public int run(int desiredPort) {
@@ -58,18 +69,83 @@ public class Server {
 
         Spark.webSocket("/ws", webSocketHandler);
 
-        Spark.post("/user", registerHandler::register);
-        Spark.get("/game", listGamesHandler::listGames);
-        Spark.post("/game", createGameHandler::createGame);
-        Spark.put("/game", joinGameHandler::joinGame);
-        Spark.delete("/db", this::clear);
-        Spark.delete("/session", logoutHandler::logout);
-        Spark.post("/session", loginHandler::login);
+        Spark.post("/user", timed("POST", "/user", registerHandler::register));
+        Spark.get("/game", timed("GET", "/game", listGamesHandler::listGames));
+        Spark.post("/game", timed("POST", "/game", createGameHandler::createGame));
+        Spark.put("/game", timed("PUT", "/game", joinGameHandler::joinGame));
+        Spark.delete("/db", timed("DELETE", "/db", this::clear));
+        Spark.delete("/session", timed("DELETE", "/session", logoutHandler::logout));
+        Spark.post("/session", timed("POST", "/session", loginHandler::login));
+        Spark.get("/metrics", this::scrapeMetrics);
 
         Spark.awaitInitialization();
         return Spark.port();
     }
 
+    public Object scrapeMetrics(Request req, Response res) {
+        res.type("text/plain; version=0.0.4");
+        return metrics.scrape();
+    }
+
+    // Wraps a route so its latency and response statuses are recorded.
+    private Route timed(String method, String path, Route route) {
+        LatencyHistogram latency = metrics.histogram("chess_http_request_duration_seconds",
+                "Time to handle an HTTP request", "method", method, "route", path);
+        return (req, res) -> {
+            long start = System.nanoTime();
+            int status = 500;
+            try {
+                Object body = route.handle(req, res);
+                status = res.status();
+                return body;
+            } finally {
+                latency.record(System.nanoTime() - start);
+                metrics.counter("chess_http_responses_total", "HTTP responses sent",
+                        "method", method, "route", path, "status", Integer.toString(status)).increment();
+            }
+        };
+    }
+
+    private void registerGauges(CachingAuthDAO authDAO) {
+        metrics.gauge("chess_ws_open_connections", "Open websocket connections",
+                webSocketHandler::getOpenConnections);
+        metrics.gauge("chess_ws_game_sessions", "Websocket sessions that have joined a game", sessions::size);
+        metrics.gauge("chess_games_live", "Games being played from memory", gameService::getLiveGameCount);
+        metrics.gauge("chess_game_actors_active", "Games with websocket commands queued or running",
+                gameActors::getActiveGames);
+
+        ConnectionPool pool = DatabaseManager.getPool();
+        metrics.gauge("chess_db_pool_active", "Database connections borrowed", pool::getActiveCount);
+        metrics.gauge("chess_db_pool_idle", "Database connections open and idle", pool::getIdleCount);
+        metrics.gauge("chess_db_pool_max", "Most database connections the pool will open", pool::getMaxSize);
+        metrics.counterFrom("chess_db_pool_borrows_total", "Database connections borrowed", pool::getBorrowCount);
+        metrics.counterFrom("chess_db_pool_timeouts_total", "Borrowers that gave up waiting for a connection",
+                pool::getTimeoutCount);
+        metrics.counterFrom("chess_db_pool_wait_seconds_total", "Time spent waiting for a connection",
+                () -> pool.getWaitNanos() / 1e9);
+
+        metrics.counterFrom("chess_auth_cache_hits_total", "Auth tokens found in the cache", authDAO::getHits);
+        metrics.counterFrom("chess_auth_cache_misses_total", "Auth tokens looked up in the database",
+                authDAO::getMisses);
+        metrics.counterFrom("chess_move_cache_hits_total", "Legal move lookups served from the cache",
+                MoveCache.SHARED::getHits);
+        metrics.counterFrom("chess_move_cache_misses_total", "Legal move lookups that generated moves",
+                MoveCache.SHARED::getMisses);
+
+        PasswordHasher hasher = PasswordHasher.SHARED;
+        metrics.counterFrom("chess_password_hashes_total", "Password hashes and checks run", hasher::getCompletedCount);
+        metrics.counterFrom("chess_password_hash_rejections_total", "Password hashes turned away with a 503",
+                hasher::getRejectedCount);
+        metrics.histogramFrom("chess_password_hash_seconds", "Time to hash or check one password",
+                hasher.getHashLatency());
+        metrics.histogramFrom("chess_password_hash_queue_seconds", "Time a password waits for a hashing thread",
+                hasher.getQueueLatency());
+        metrics.gauge("chess_password_hash_queued", "Passwords waiting for a hashing thread", hasher::getQueuedCount);
+
+        metrics.counterFrom("chess_log_dropped_total", "Log events dropped because the buffer was full",
+                AsyncLog::getDroppedCount);
+    }
+
     public Object clear(Request req, Response res) throws ResponseException {
         userService.clearUsers();
         gameService.clearGames();
@@ -85,5 +161,13 @@ public class Server {
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
+        // let queued commands finish so their moves are in the final write-back
+        gameActors.shutdown();
+        try {
+            gameService.shutdown();
+        } catch (ResponseException e) {
+            LOG.error("Writing back live games at shutdown failed", e);
+        }
+        AsyncLog.flush(1000);
     }
 }
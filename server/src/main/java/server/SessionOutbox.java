@@ -0,0 +1,104 @@
+package server;
+
+import logging.AsyncLog;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+
+import java.util.ArrayDeque;
+
+/**
+ * Sends a session's outgoing frames without blocking the sender. Frames wait in a
+ * bounded queue and are written one at a time, each started when the last one finishes,
+ * so they arrive in order and a slow client only delays itself.
+ * <p>
+ * A LOAD_GAME frame carries the whole board, so under {@link LoadGamePolicy#KEEP_LATEST}
+ * a newer one replaces any still waiting. A session whose queue fills anyway is too far
+ * behind to catch up and is disconnected.
+ */
+final class SessionOutbox implements WriteCallback {
+    private static final AsyncLog LOG = AsyncLog.get(SessionOutbox.class);
+
+    enum LoadGamePolicy {
+        // every LOAD_GAME frame is sent
+        KEEP_ALL,
+        // a LOAD_GAME frame replaces any that haven't started sending
+        KEEP_LATEST
+    }
+
+    private final Session session;
+    private final int maxQueuedFrames;
+    private final LoadGamePolicy loadGamePolicy;
+
+    // all guarded by this
+    private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+    private boolean writing;
+    private boolean closed;
+
+    SessionOutbox(Session session, int maxQueuedFrames, LoadGamePolicy loadGamePolicy) {
+        this.session = session;
+        this.maxQueuedFrames = maxQueuedFrames;
+        this.loadGamePolicy = loadGamePolicy;
+    }
+
+    /**
+     * Queues a frame and returns without waiting for it to be written
+     *
+     * @param loadGame True if the frame is a LOAD_GAME message, which a later one makes stale
+     */
+    synchronized void send(String payload, boolean loadGame) {
+        if (closed) {
+            return;
+        }
+        if (!session.isOpen()) {
+            discard();
+            return;
+        }
+        if (loadGame && loadGamePolicy == LoadGamePolicy.KEEP_LATEST) {
+            queue.removeIf(Frame::loadGame);
+        }
+        if (queue.size() >= maxQueuedFrames) {
+            discard();
+            session.close(StatusCode.POLICY_VIOLATION, "Too many unsent messages; reconnect to catch up");
+            return;
+        }
+        queue.add(new Frame(payload, loadGame));
+        if (!writing) {
+            writeNext();
+        }
+    }
+
+    /**
+     * Drops everything waiting; later frames are ignored
+     */
+    synchronized void discard() {
+        closed = true;
+        queue.clear();
+    }
+
+    @Override
+    public synchronized void writeSuccess() {
+        writing = false;
+        if (!closed) {
+            writeNext();
+        }
+    }
+
+    @Override
+    public synchronized void writeFailed(Throwable cause) {
+        writing = false;
+        discard();
+        LOG.debug("Write to websocket client failed: {}", cause.getMessage(), cause);
+    }
+
+    private void writeNext() {
+        Frame next = queue.poll();
+        if (next != null) {
+            writing = true;
+            session.getRemote().sendString(next.payload(), this);
+        }
+    }
+
+    private record Frame(String payload, boolean loadGame) {
+    }
+}
@@ -0,0 +1,77 @@
+package server;
+
+import org.eclipse.jetty.websocket.api.Session;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which game each websocket session is in, indexed both ways: by game, so a
+ * broadcast only visits that game's sessions, and by session, so a closing session can
+ * be found and removed without a search.
+ */
+public class SessionRegistry {
+    private final ConcurrentHashMap<Integer, Set<Session>> sessionsByGame = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Session, Integer> gameBySession = new ConcurrentHashMap<>();
+
+    /**
+     * Puts a session in a game, taking it out of any game it was in before
+     */
+    public void join(Session session, int gameID) {
+        Integer previous = gameBySession.put(session, gameID);
+        if (previous != null && previous != gameID) {
+            leave(previous, session);
+        }
+        sessionsByGame.compute(gameID, (id, sessions) -> {
+            Set<Session> target = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+            target.add(session);
+            return target;
+        });
+        if (!Objects.equals(gameBySession.get(session), gameID)) {
+            // the session closed or moved on while it was being added
+            leave(gameID, session);
+        }
+    }
+
+    /**
+     * Takes a session out of whatever game it is in
+     */
+    public void remove(Session session) {
+        Integer gameID = gameBySession.remove(session);
+        if (gameID != null) {
+            leave(gameID, session);
+        }
+    }
+
+    /**
+     * @return the game the session is in, or null if it hasn't joined one
+     */
+    public Integer gameOf(Session session) {
+        return gameBySession.get(session);
+    }
+
+    /**
+     * @return a live, read-only view of the sessions in a game
+     */
+    public Set<Session> sessionsIn(int gameID) {
+        Set<Session> sessions = sessionsByGame.get(gameID);
+        return sessions == null ? Collections.emptySet() : Collections.unmodifiableSet(sessions);
+    }
+
+    /**
+     * @return the number of sessions that have joined a game
+     */
+    public int size() {
+        return gameBySession.size();
+    }
+
+    private void leave(int gameID, Session session) {
+        // the set is dropped with its last session, inside compute so a concurrent join can't add to a dropped set
+        sessionsByGame.computeIfPresent(gameID, (id, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+}
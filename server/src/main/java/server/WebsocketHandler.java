@@ -1,8 +1,13 @@
 package server;
 
 import chess.ChessGame;
+import chess.InvalidMoveException;
 import com.google.gson.Gson;
 import dataaccess.ResponseException;
+import json.ChessGson;
+import logging.AsyncLog;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.AuthData;
 import model.GameData;
 import org.eclipse.jetty.websocket.api.Session;
@@ -10,41 +15,113 @@ import org.eclipse.jetty.websocket.api.annotations.*;
 import websocket.commands.*;
 import websocket.messages.Error;
 import websocket.messages.LoadGame;
+import websocket.messages.MoveMade;
 import websocket.messages.Notification;
 import websocket.messages.ServerMessage;
 
 import java.io.IOException;
-import java.util.Objects;
+import java.util.EnumMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 @WebSocket
 public class WebsocketHandler {
 
+    private static final AsyncLog LOG = AsyncLog.get(WebsocketHandler.class);
+    // logs written for every message keep only a sample, so they can be left on under load
+    private static final AsyncLog.Sampler MESSAGE_LOG = LOG.sampled(Integer.getInteger("chess.log.messageSampleRate", 100));
+
+    private static final int MAX_QUEUED_FRAMES = Integer.getInteger("chess.ws.maxQueuedFrames", 64);
+    private static final SessionOutbox.LoadGamePolicy LOAD_GAME_POLICY = SessionOutbox.LoadGamePolicy.valueOf(
+            System.getProperty("chess.ws.loadGamePolicy", SessionOutbox.LoadGamePolicy.KEEP_LATEST.name()));
+
+    private final GameActors actors;
+    private final EnumMap<UserGameCommand.CommandType, LatencyHistogram> commandLatency =
+            new EnumMap<>(UserGameCommand.CommandType.class);
+    private final EnumMap<UserGameCommand.CommandType, LongAdder> commandErrors =
+            new EnumMap<>(UserGameCommand.CommandType.class);
+    private final LatencyHistogram queueLatency;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final Gson gson = ChessGson.GSON;
+    private final ConcurrentHashMap<Session, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+    // sessions that asked for MOVE_MADE messages instead of a LOAD_GAME after every move
+    private final Set<Session> moveUpdateSessions = ConcurrentHashMap.newKeySet();
+
+    public WebsocketHandler(GameActors actors, MetricsRegistry metrics) {
+        this.actors = actors;
+        for (UserGameCommand.CommandType type : UserGameCommand.CommandType.values()) {
+            commandLatency.put(type, metrics.histogram("chess_ws_command_duration_seconds",
+                    "Time to handle a websocket command", "command", type.name()));
+            commandErrors.put(type, metrics.counter("chess_ws_command_errors_total",
+                    "Websocket commands that failed with an unexpected error", "command", type.name()));
+        }
+        queueLatency = metrics.histogram("chess_ws_command_queue_seconds",
+                "Time a websocket command waits behind earlier commands for its game");
+    }
+
     @OnWebSocketConnect
     public void onConnect(Session session) {
-        System.out.println("New WebSocket connection established: " + session.getRemoteAddress().getAddress());
-        // Initially, the session is not associated with any game (0 means "none")
-        Server.gameSessions.put(session, 0);
+        openConnections.incrementAndGet();
+        LOG.debug("WebSocket connection established: {}", session.getRemoteAddress().getAddress());
+        // The session isn't associated with any game until it sends CONNECT
     }
 
     @OnWebSocketClose
     public void onClose(Session session, int statusCode, String reason) {
-        System.out.println("WebSocket connection closed: " + session.getRemoteAddress().getAddress() +
-                " Code: " + statusCode + " Reason: " + reason);
-        Server.gameSessions.remove(session);
+        openConnections.decrementAndGet();
+        LOG.debug("WebSocket connection closed: {} Code: {} Reason: {}",
+                session.getRemoteAddress().getAddress(), statusCode, reason);
+        Server.sessions.remove(session);
+        moveUpdateSessions.remove(session);
+        SessionOutbox outbox = outboxes.remove(session);
+        if (outbox != null) {
+            outbox.discard();
+        }
     }
 
     @OnWebSocketMessage
     public void onMessage(Session session, String message) throws Exception {
-        System.out.println("Received message: " + message);
+        long receivedAt = System.nanoTime();
+        MESSAGE_LOG.debug("Received message: {}", message);
+
+        UserGameCommand command;
+        try {
+            // Parsed straight into the subclass the command type names.
+            command = gson.fromJson(message, UserGameCommand.class);
+        } catch (Exception e) {
+            LOG.debug("Unreadable message: {}", message, e);
+            sendErrorMessage(session, "Error processing message: " + e.getMessage());
+            return;
+        }
+        if (command == null || command.getGameID() == null) {
+            sendErrorMessage(session, "Error processing message: no game ID given");
+            return;
+        }
 
+        // Commands for one game run one at a time, in the order they arrived, so two moves
+        // can't both read the same game and overwrite each other's result.
+        actors.submit(command.getGameID(), () -> handleCommand(session, command, receivedAt));
+    }
+
+    private void handleCommand(Session session, UserGameCommand command, long receivedAt) {
+        if (command.getCommandType() == null) {
+            sendErrorMessage(session, "Unknown command type.");
+            return;
+        }
+        long start = System.nanoTime();
+        queueLatency.record(start - receivedAt);
         try {
-            // First, deserialize to the base class to determine the command type.
-            UserGameCommand baseCommand = new Gson().fromJson(message, UserGameCommand.class);
-            switch (baseCommand.getCommandType()) {
+            switch (command.getCommandType()) {
                 case CONNECT:
-                    Connect joinPlayer = new Gson().fromJson(message, Connect.class);
-                    GameData game = Server.gameService.getGameData(joinPlayer.getAuthToken(), joinPlayer.getGameID());
+                    Connect joinPlayer = (Connect) command;
                     AuthData auth = Server.userService.getAuth(joinPlayer.getAuthToken());
+                    GameData game = Server.gameService.getGameData(joinPlayer.getAuthToken(), joinPlayer.getGameID());
+                    if (game == null) {
+                        sendErrorMessage(session, "A game with that ID doesn't exist");
+                        break;
+                    }
                     if (auth.username().equals(game.whiteUsername())) {
                         handleJoinPlayerCommand(session, joinPlayer);
                     }
@@ -56,31 +133,43 @@ public class WebsocketHandler {
                     }
                     break;
                 case MAKE_MOVE:
-                    MakeMove makeMove = new Gson().fromJson(message, MakeMove.class);
-                    handleMakeMoveCommand(session, makeMove);
+                    handleMakeMoveCommand(session, (MakeMove) command);
                     break;
                 case LEAVE:
-                    Leave leave = new Gson().fromJson(message, Leave.class);
-                    handleLeaveCommand(session, leave);
+                    handleLeaveCommand(session, (Leave) command);
                     break;
                 case RESIGN:
-                    Resign resign = new Gson().fromJson(message, Resign.class);
-                    handleResignCommand(session, resign);
+                    handleResignCommand(session, (Resign) command);
+                    break;
+                case RESYNC:
+                    handleResyncCommand(session, (Resync) command);
                     break;
                 default:
                     sendErrorMessage(session, "Unknown command type.");
                     break;
             }
+        } catch (ResponseException e) {
+            // a bad token or game ID is the client's mistake, not a failure of ours
+            sendMessage(session, new Error(e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            commandErrors.get(command.getCommandType()).increment();
+            LOG.error("Command {} for game {} failed", command.getCommandType(), command.getGameID(), e);
             sendErrorMessage(session, "Error processing message: " + e.getMessage());
+        } finally {
+            commandLatency.get(command.getCommandType()).record(System.nanoTime() - start);
         }
     }
 
+    /**
+     * @return the number of websocket connections currently open
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
     @OnWebSocketError
     public void onError(Session session, Throwable error) {
-        System.out.println("WebSocket error: " + error.getMessage());
-        error.printStackTrace();
+        LOG.warn("WebSocket error: {}", error.getMessage(), error);
     }
 
     private void handleJoinPlayerCommand(Session session, Connect command) throws Exception {
@@ -98,13 +187,14 @@ public class WebsocketHandler {
             }
 
 
-            Server.gameSessions.put(session, command.getGameID());
+            Server.sessions.join(session, command.getGameID());
+            setMoveUpdates(session, command);
 
             Notification notif = new Notification(
                     String.format("%s has joined the game as %s", auth.username(), joiningColor));
             broadcastMessage(session, notif);
 
-            LoadGame load = new LoadGame(game.game().getBoard());
+            LoadGame load = new LoadGame(game.game().getBoard(), game.game().getPly());
             sendMessage(session, load);
         } catch (ResponseException e) {
             sendMessage(session, new Error(e.getMessage()));
@@ -120,13 +210,14 @@ public class WebsocketHandler {
                 return;
             }
 
-            Server.gameSessions.put(session, command.getGameID());
+            Server.sessions.join(session, command.getGameID());
+            setMoveUpdates(session, command);
 
             Notification notif = new Notification(
                     String.format("%s has joined the game as an observer", auth.username()));
             broadcastMessage(session, notif);
 
-            LoadGame load = new LoadGame(game.game().getBoard());
+            LoadGame load = new LoadGame(game.game().getBoard(), game.game().getPly());
             sendMessage(session, load);
         } catch (Exception e) {
             sendMessage(session, new Error("Error: Not authorized"));
@@ -153,37 +244,58 @@ public class WebsocketHandler {
             }
 
             // Process the move (using your chess logic).
-            game.game().makeMove(command.getMove());
+            try {
+                game.game().makeMove(command.getMove());
+            } catch (InvalidMoveException e) {
+                sendMessage(session, new Error("Error: " + e.getMessage()));
+                return;
+            }
 
-            Notification notif;
-            notif = new Notification(String.format("A move has been made by %s", auth.username()));
-            broadcastMessage(session, notif, false);
             ChessGame.TeamColor opponentColor =
                     userColor == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            Notification outcome = null;
             if (game.game().isInCheckmate(opponentColor)) {
-                notif = new Notification(String.format("Checkmate! %s wins!", auth.username()));
+                outcome = new Notification(String.format("Checkmate! %s wins!", auth.username()));
                 game.game().setGameOver(true);
-                broadcastMessage(session, notif, true);
             } else if (game.game().isInStalemate(opponentColor)) {
-                notif = new Notification(String.format("Stalemate caused by %s's move! It's a tie!", auth.username()));
+                outcome = new Notification(String.format("Stalemate caused by %s's move! It's a tie!", auth.username()));
                 game.game().setGameOver(true);
-                broadcastMessage(session, notif, true);
             } else if (game.game().isInCheck(opponentColor)) {
-                notif = new Notification(String.format("A move has been made by %s, %s is now in check!",
+                outcome = new Notification(String.format("A move has been made by %s, %s is now in check!",
                         auth.username(), opponentColor));
-                broadcastMessage(session, notif, false);
             }
 
+            // Update the game in the database before telling anyone about the move, so a game
+            // announced as over has already been saved as over.
+            Server.gameService.updateGame(auth.authToken(), game, command.getMove());
 
-            // Update the game in the database.
-            Server.gameService.updateGame(auth.authToken(), game);
+            Notification notif = new Notification(String.format("A move has been made by %s", auth.username()));
+            broadcastMessage(session, notif, false);
+            if (outcome != null) {
+                // the end of the game goes to the player who moved too
+                broadcastMessage(session, outcome, game.game().isGameOver());
+            }
 
-            LoadGame load = new LoadGame(game.game().getBoard());
-            broadcastMessage(session, load, true);
+            LoadGame load = new LoadGame(game.game().getBoard(), game.game().getPly());
+            broadcastMove(session, load, new MoveMade(command.getMove(), game.game().getPly()));
         } catch (ResponseException e) {
             sendMessage(session, new Error(e.getMessage()));
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.warn("Could not reach a websocket client", e);
+        }
+    }
+
+    // Handles a RESYNC command from a client that missed a MOVE_MADE.
+    private void handleResyncCommand(Session session, Resync command) throws Exception {
+        try {
+            GameData game = Server.gameService.getGameData(command.getAuthToken(), command.getGameID());
+            if (game == null) {
+                sendMessage(session, new Error("Error: A game with that ID doesn't exist"));
+                return;
+            }
+            sendMessage(session, new LoadGame(game.game().getBoard(), game.game().getPly()));
+        } catch (ResponseException e) {
+            sendMessage(session, new Error(e.getMessage()));
         }
     }
 
@@ -204,7 +316,7 @@ public class WebsocketHandler {
         } catch (ResponseException e) {
             sendMessage(session, new Error(e.getMessage()));
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.warn("Could not reach a websocket client", e);
         }
     }
 
@@ -232,7 +344,7 @@ public class WebsocketHandler {
         } catch (ResponseException e) {
             sendMessage(session, new Error(e.getMessage()));
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.warn("Could not reach a websocket client", e);
         }
     }
 
@@ -242,32 +354,79 @@ public class WebsocketHandler {
 
     // Sends a ServerMessage to a single session.
     private void sendMessage(Session session, ServerMessage message) {
-        try {
-            if (session.isOpen()) {
-                session.getRemote().sendString(new Gson().toJson(message));
+        sendPayload(session, gson.toJson(message), isLoadGame(message));
+    }
+
+    // Queues an already serialized message, so a broadcast can share one payload among all its recipients.
+    // Sends don't wait for the write, so a slow client can't hold up the others.
+    private void sendPayload(Session session, String payload, boolean loadGame) {
+        if (session.isOpen()) {
+            outboxes.computeIfAbsent(session, s -> new SessionOutbox(s, MAX_QUEUED_FRAMES, LOAD_GAME_POLICY))
+                    .send(payload, loadGame);
+            if (!session.isOpen()) {
+                // closed while the outbox was being made; onClose may already have run
+                outboxes.remove(session);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
     }
 
+    private static boolean isLoadGame(ServerMessage message) {
+        return message.getServerMessageType() == ServerMessage.ServerMessageType.LOAD_GAME;
+    }
+
     // Broadcasts a message to all sessions in the same game as currSession.
     public void broadcastMessage(Session currSession, ServerMessage message) throws IOException {
         broadcastMessage(currSession, message, false);
     }
 
     public void broadcastMessage(Session currSession, ServerMessage message, boolean toSelf) throws IOException {
-        System.out.printf("Broadcasting (toSelf: %s): %s%n", toSelf, new Gson().toJson(message));
-        for (Session session : Server.gameSessions.keySet()) {
-            boolean inAGame = !Objects.equals(Server.gameSessions.get(session), 0);
-            boolean sameGame = Server.gameSessions.get(session).equals(Server.gameSessions.get(currSession));
-            boolean isSelf = session == currSession;
-            if ((toSelf || !isSelf) && inAGame && sameGame) {
-                sendMessage(session, message);
+        String payload = gson.toJson(message);
+        MESSAGE_LOG.debug("Broadcasting (toSelf: {}): {}", toSelf, payload);
+        Integer gameID = Server.sessions.gameOf(currSession);
+        if (gameID == null) {
+            return;
+        }
+        boolean loadGame = isLoadGame(message);
+        for (Session session : Server.sessions.sessionsIn(gameID)) {
+            if (toSelf || session != currSession) {
+                sendPayload(session, payload, loadGame);
             }
         }
     }
 
+    // Sends the result of a move to everyone in the game: just the move to sessions that apply moves
+    // themselves, the whole board to the rest. Each form is serialized at most once.
+    private void broadcastMove(Session currSession, LoadGame load, MoveMade move) {
+        MESSAGE_LOG.debug("Broadcasting move {}: {}", move.getSequence(), move.getMove());
+        Integer gameID = Server.sessions.gameOf(currSession);
+        if (gameID == null) {
+            return;
+        }
+        String loadPayload = null;
+        String movePayload = null;
+        for (Session session : Server.sessions.sessionsIn(gameID)) {
+            if (moveUpdateSessions.contains(session)) {
+                if (movePayload == null) {
+                    movePayload = gson.toJson(move);
+                }
+                sendPayload(session, movePayload, false);
+            } else {
+                if (loadPayload == null) {
+                    loadPayload = gson.toJson(load);
+                }
+                sendPayload(session, loadPayload, true);
+            }
+        }
+    }
+
+    private void setMoveUpdates(Session session, Connect command) {
+        if (command.wantsMoveUpdates()) {
+            moveUpdateSessions.add(session);
+        } else {
+            moveUpdateSessions.remove(session);
+        }
+    }
+
     // Determines the team color of a user in a game.
     private ChessGame.TeamColor getTeamColor(String username, GameData game) {
         if (username.equals(game.whiteUsername())) {
@@ -280,8 +439,8 @@ public class WebsocketHandler {
     }
 
     // Sends an error message (ensuring the message includes "error").
-    private void sendErrorMessage(Session session, String errorMessage) throws IOException {
-        System.out.printf("Error: %s%n", errorMessage);
+    private void sendErrorMessage(Session session, String errorMessage) {
+        LOG.debug("Error: {}", errorMessage);
         sendMessage(session, new Error("Error: " + errorMessage));
     }
 }
@@ -1,25 +1,34 @@
 package service;
 import chess.ChessBoard;
 import chess.ChessGame;
+import chess.ChessMove;
 import dataaccess.AuthDAO;
 import dataaccess.GameDAO;
 import dataaccess.ResponseException;
 import model.AuthData;
 import model.GameData;
+import model.GameFilter;
 import model.GameResponse;
 import model.JoinRequest;
 import model.GameListResponse;
+import model.GameSummary;
 
-import java.util.HashSet;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.List;
 
 public class GameService {
+    private static final long FLUSH_INTERVAL_MILLIS = 200;
+    private static final long IDLE_EVICT_MILLIS = 10 * 60 * 1000;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+
     AuthDAO aDAO;
     GameDAO gDAO;
+    LiveGameRegistry liveGames;
 
     public GameService(AuthDAO aDAO, GameDAO gDAO) {
         this.aDAO = aDAO;
         this.gDAO = gDAO;
+        this.liveGames = new LiveGameRegistry(gDAO, FLUSH_INTERVAL_MILLIS, IDLE_EVICT_MILLIS);
     }
 
     public GameResponse createGame(String gameName, String authToken) throws ResponseException {
@@ -29,16 +38,13 @@ public class GameService {
         }
 
         int gameID;
-        do { // Get random gameIDs until the gameID is not already in use
-            gameID = ThreadLocalRandom.current().nextInt(1, 10000);
-        } while (gDAO.gameExists(gameID));
-
         try {
             ChessGame game = new ChessGame();
             ChessBoard board = new ChessBoard();
             board.resetBoard();
             game.setBoard(board);
-            gDAO.createGame(new GameData(gameID, null, null, gameName, game));
+            // the DAO allocates the ID, so creation never has to search for a free one
+            gameID = gDAO.createGame(new GameData(0, null, null, gameName, game));
         } catch (ResponseException e) {
             throw new ResponseException(500, "could not create game");
         }
@@ -48,19 +54,54 @@ public class GameService {
     }
 
     public void leavePlayer(String color, int gameID) throws ResponseException {
-        gDAO.removePlayer(gameID, color);
+        // goes through the live copy so the next write-behind flush doesn't put the player back
+        if (color.equals("white")) {
+            liveGames.setPlayer(gameID, ChessGame.TeamColor.WHITE, null, false);
+        }
+        if (color.equals("black")) {
+            liveGames.setPlayer(gameID, ChessGame.TeamColor.BLACK, null, false);
+        }
     }
 
     public GameListResponse listGames(String authToken) throws ResponseException {
+        return listGames(authToken, GameFilter.ALL, null, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Lists one page of games, without their boards. Players and names only change
+     * through writes that reach the DAO before returning, so the DAO's copy is current
+     * even for games being played from memory.
+     *
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit  the most games to return, up to {@link #MAX_PAGE_SIZE}
+     */
+    public GameListResponse listGames(String authToken, GameFilter filter, String cursor, int limit)
+            throws ResponseException {
         if (aDAO.getAuth(authToken) == null) {
             throw new ResponseException(401, "Error: Invalid authentication token");
         }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseException(400, "Error: limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        int afterGameID = 0;
+        if (cursor != null) {
+            try {
+                afterGameID = Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                throw new ResponseException(400, "Error: bad cursor");
+            }
+        }
 
-        HashSet<GameData> games = gDAO.listGames();
-        return new GameListResponse(games);
+        // one extra row says whether there is another page
+        List<GameSummary> games = gDAO.listGameSummaries(filter, afterGameID, limit + 1);
+        String nextCursor = null;
+        if (games.size() > limit) {
+            games = games.subList(0, limit);
+            nextCursor = Integer.toString(games.get(limit - 1).gameID());
+        }
+        return new GameListResponse(games, nextCursor);
     }
 
-
     public boolean joinGame(String authToken, JoinRequest joinRequest) throws ResponseException {
         AuthData auth;
         GameData game;
@@ -75,7 +116,7 @@ public class GameService {
         }
 
         try {
-            game = gDAO.getGame(joinRequest.gameID());
+            game = liveGames.get(joinRequest.gameID());
             if (game == null) {
                 throw new ResponseException(400, "Game id not found");
             }
@@ -83,8 +124,6 @@ public class GameService {
             throw new ResponseException(400, "Error: A game with that ID doesn't exist");
         }
 
-        String white = game.whiteUsername();
-        String black = game.blackUsername();
         String username = auth.username();
 
         String playerColor = joinRequest.playerColor();
@@ -100,38 +139,59 @@ public class GameService {
             throw new ResponseException(400, "Error: bad request: Invalid player color. Choose 'WHITE' or 'BLACK'.");
         }
 
-        // Check if the player can join the game
-        if ("WHITE".equals(playerColor)) {
-            if (white != null) {
-                throw new ResponseException(403, "Error: White player slot is already taken.");
-            }
-            game = new GameData(game.gameID(), username, black, game.gameName(), game.game()); // Assign to white
-        } else if ("BLACK".equals(playerColor)) {
-            if (black != null) {
-                throw new ResponseException(403, "Error: Black player slot is already taken.");
-            }
-            game = new GameData(game.gameID(), white, username, game.gameName(), game.game()); // Assign to black
-        }
-
+        // Seat the player on the live game as it is now, so a move made since it was read isn't undone
+        ChessGame.TeamColor color = ChessGame.TeamColor.valueOf(playerColor);
+        boolean seated;
         try {
-            gDAO.updateGame(game);
+            seated = liveGames.setPlayer(game.gameID(), color, username, true);
         } catch (ResponseException e) {
             throw new ResponseException(500, "Error: failed to update game");
         }
+        if (!seated) {
+            throw new ResponseException(403, color == ChessGame.TeamColor.WHITE
+                    ? "Error: White player slot is already taken."
+                    : "Error: Black player slot is already taken.");
+        }
         return true;
     }
 
     public void updateGame(String authToken, GameData gameData) throws ResponseException {
+        updateGame(authToken, gameData, null);
+    }
+
+    /**
+     * Saves a game after a move was made in it. The move goes to the game's move log in
+     * the next batch, rather than the whole game being rewritten.
+     *
+     * @param move the move just made in the game, or null if the change was not a move
+     */
+    public void updateGame(String authToken, GameData gameData, ChessMove move) throws ResponseException {
         aDAO.getAuth(authToken);
-        gDAO.updateGame(gameData);
+        // moves are written back in batches, but a finished game is saved before anyone is told it's over
+        liveGames.update(gameData, gameData.game() != null && gameData.game().isGameOver(), move);
     }
 
     public GameData getGameData(String authToken, int gameID) throws Exception {
         aDAO.getAuth(authToken);
-        return gDAO.getGame(gameID);
+        return liveGames.get(gameID);
     }
 
     public void clearGames() throws ResponseException {
+        liveGames.clear();
         gDAO.clear();
     }
+
+    /**
+     * @return the number of games being played from memory
+     */
+    public int getLiveGameCount() {
+        return liveGames.size();
+    }
+
+    /**
+     * Writes back every game with unsaved moves and stops the background writer
+     */
+    public void shutdown() throws ResponseException {
+        liveGames.close();
+    }
 }
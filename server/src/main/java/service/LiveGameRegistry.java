@@ -0,0 +1,330 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import dataaccess.GameDAO;
+import dataaccess.ResponseException;
+import logging.AsyncLog;
+import model.GameData;
+import model.GameMove;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the games being played in memory so moves don't wait on the database. A game
+ * is loaded from the {@link GameDAO} the first time it is read, and after that reads and
+ * writes are served from memory. Changes are written back in batches by a background
+ * task, except for writes marked durable (a game ending, players joining or leaving),
+ * which reach the DAO before {@link #update} returns.
+ * <p>
+ * A move is written back as one small row in the game's move log. The whole game is
+ * only rewritten as a snapshot every {@link #SNAPSHOT_INTERVAL} moves, on durable
+ * writes, and for changes that aren't moves; reading a game replays the moves logged
+ * since its last snapshot.
+ * <p>
+ * The registry hands out and keeps copies of each game, so callers can play moves on
+ * what they read without affecting what is stored until they call update, and the
+ * background writer never sees a game in the middle of a move.
+ */
+public class LiveGameRegistry {
+    private static final AsyncLog LOG = AsyncLog.get(LiveGameRegistry.class);
+    static final int SNAPSHOT_INTERVAL = 20;
+
+    private final GameDAO gDAO;
+    private final ConcurrentHashMap<Integer, LiveGame> games = new ConcurrentHashMap<>();
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    // held for every write to the DAO, so an older snapshot never lands after a newer one
+    private final Object writeLock = new Object();
+    private final ScheduledExecutorService flusher;
+    private final long idleEvictNanos;
+
+    /**
+     * @param flushIntervalMillis how often changed games are written back
+     * @param idleEvictMillis     how long a game with no changes waiting stays in memory
+     *                            after it was last used
+     */
+    public LiveGameRegistry(GameDAO gDAO, long flushIntervalMillis, long idleEvictMillis) {
+        this.gDAO = gDAO;
+        this.idleEvictNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictMillis);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-game-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAndEvict, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return a copy of the game, loading it from the DAO if it isn't in memory; null if
+     * the DAO has no such game
+     */
+    public GameData get(int gameID) throws ResponseException {
+        LiveGame live = games.get(gameID);
+        if (live == null) {
+            GameData stored = gDAO.getGame(gameID);
+            if (stored == null) {
+                return null;
+            }
+            LiveGame loaded = new LiveGame(copyOf(stored), false);
+            live = games.putIfAbsent(gameID, loaded);
+            if (live == null) {
+                live = loaded;
+            }
+        }
+        live.touch();
+        return copyOf(live.data);
+    }
+
+    /**
+     * Replaces the stored game's board and state with a copy of the given game's. The
+     * players are kept as they are in memory: they only change through
+     * {@link #setPlayer}, so a move made on a copy read before someone joined can't
+     * empty their seat again.
+     *
+     * @param durable True to write the game to the DAO before returning, rather than with
+     *                the next batch
+     * @param move    the move that took the game from its stored state to this one, or null
+     *                if the change was not a single move
+     */
+    public void update(GameData game, boolean durable, ChessMove move) throws ResponseException {
+        GameData snapshot = copyOf(game);
+        Instant now = Instant.now();
+        boolean writeNow = durable || flusher.isShutdown();
+        LiveGame updated = games.compute(game.gameID(), (id, live) -> {
+            if (live == null) {
+                live = new LiveGame(snapshot, true);
+            }
+            synchronized (live) {
+                GameData current = live.data;
+                live.data = new GameData(id, current.whiteUsername(), current.blackUsername(), current.gameName(),
+                        snapshot.game());
+                if (move != null && snapshot.game() != null) {
+                    live.pendingMoves.add(new GameMove(id, snapshot.game().getPly(), move, now));
+                } else {
+                    live.snapshotDue = true;
+                }
+            }
+            live.touch();
+            if (!writeNow) {
+                // marked inside compute so eviction, which also runs in compute, can't drop an unwritten game
+                dirty.add(id);
+            }
+            return live;
+        });
+        if (writeNow) {
+            synchronized (writeLock) {
+                dirty.remove(game.gameID());
+                write(List.of(updated), true);
+            }
+        }
+    }
+
+    /**
+     * Seats a player in the game, or empties a seat, and writes the game to the DAO before
+     * returning. Only the player is changed on the copy held in memory, so a move made
+     * since the caller last read the game is kept.
+     *
+     * @param username    the player to seat, or null to empty the seat
+     * @param onlyIfEmpty True to leave the seat alone if someone is already in it
+     * @return False if there is no such game, or onlyIfEmpty was given and the seat was taken
+     */
+    public boolean setPlayer(int gameID, ChessGame.TeamColor color, String username, boolean onlyIfEmpty)
+            throws ResponseException {
+        AtomicBoolean seated = new AtomicBoolean();
+        LiveGame updated = null;
+        while (updated == null) {
+            if (get(gameID) == null) {
+                return false;
+            }
+            // null if the game was evicted since it was loaded; it is loaded again and retried
+            updated = games.computeIfPresent(gameID, (id, live) -> {
+                synchronized (live) {
+                    GameData current = live.data;
+                    String seat = color == ChessGame.TeamColor.WHITE ? current.whiteUsername() : current.blackUsername();
+                    if (onlyIfEmpty && seat != null) {
+                        return live;
+                    }
+                    live.data = color == ChessGame.TeamColor.WHITE
+                            ? new GameData(id, username, current.blackUsername(), current.gameName(), current.game())
+                            : new GameData(id, current.whiteUsername(), username, current.gameName(), current.game());
+                    live.snapshotDue = true;
+                    seated.set(true);
+                }
+                live.touch();
+                return live;
+            });
+        }
+        if (seated.get()) {
+            synchronized (writeLock) {
+                dirty.remove(gameID);
+                write(List.of(updated), true);
+            }
+        }
+        return seated.get();
+    }
+
+    /**
+     * @return copies of every game held in memory, which may be newer than the DAO's
+     */
+    public Collection<GameData> liveGames() {
+        List<GameData> copies = new ArrayList<>(games.size());
+        for (LiveGame live : games.values()) {
+            copies.add(copyOf(live.data));
+        }
+        return copies;
+    }
+
+    /**
+     * @return the number of games held in memory
+     */
+    public int size() {
+        return games.size();
+    }
+
+    /**
+     * Writes every game with changes waiting to the DAO: one batch of logged moves, and
+     * one batch of the snapshots that are due.
+     */
+    public void flush() throws ResponseException {
+        synchronized (writeLock) {
+            List<LiveGame> batch = new ArrayList<>();
+            for (Iterator<Integer> ids = dirty.iterator(); ids.hasNext(); ) {
+                // removed before the game is read, so a change made after this is flushed next time
+                int id = ids.next();
+                ids.remove();
+                LiveGame live = games.get(id);
+                if (live != null) {
+                    batch.add(live);
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch, false);
+            }
+        }
+    }
+
+    /**
+     * Sends the games' waiting moves and due snapshots to the DAO. On failure everything
+     * is put back to be retried by the next flush. Callers hold the write lock.
+     *
+     * @param forceSnapshot True to snapshot every game whether or not one is due
+     */
+    private void write(List<LiveGame> batch, boolean forceSnapshot) throws ResponseException {
+        Map<LiveGame, List<GameMove>> drained = new HashMap<>();
+        List<GameMove> moves = new ArrayList<>();
+        List<GameData> snapshots = new ArrayList<>();
+        for (LiveGame live : batch) {
+            synchronized (live) {
+                drained.put(live, new ArrayList<>(live.pendingMoves));
+                moves.addAll(live.pendingMoves);
+                live.pendingMoves.clear();
+                int ply = live.data.game() == null ? 0 : live.data.game().getPly();
+                if (forceSnapshot || live.snapshotDue || ply - live.snapshotPly >= SNAPSHOT_INTERVAL) {
+                    snapshots.add(live.data);
+                    live.snapshotDue = false;
+                    live.snapshotPly = ply;
+                }
+            }
+        }
+        try {
+            // moves first, so a snapshot is never newer than the log behind it
+            if (!moves.isEmpty()) {
+                gDAO.appendMoves(moves);
+            }
+            if (snapshots.size() == 1) {
+                gDAO.updateGame(snapshots.get(0));
+            } else if (!snapshots.isEmpty()) {
+                gDAO.updateGames(snapshots);
+            }
+        } catch (ResponseException e) {
+            for (Map.Entry<LiveGame, List<GameMove>> entry : drained.entrySet()) {
+                LiveGame live = entry.getKey();
+                synchronized (live) {
+                    live.pendingMoves.addAll(0, entry.getValue());
+                    live.snapshotDue = true;
+                }
+                dirty.add(live.data.gameID());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops every game without writing it back, for when the DAO is being cleared.
+     */
+    public void clear() {
+        synchronized (writeLock) {
+            dirty.clear();
+            games.clear();
+        }
+    }
+
+    /**
+     * Stops the background writer and writes back everything still waiting. Updates made
+     * afterward are written immediately.
+     */
+    public void close() throws ResponseException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void flushAndEvict() {
+        try {
+            flush();
+        } catch (ResponseException e) {
+            // the games stay dirty and are retried on the next run
+            LOG.warn("Writing back live games failed: {}", e.getMessage());
+        }
+        long now = System.nanoTime();
+        for (Integer gameID : games.keySet()) {
+            games.computeIfPresent(gameID, (id, live) ->
+                    dirty.contains(id) || now - live.lastUsed < idleEvictNanos ? live : null);
+        }
+    }
+
+    private static GameData copyOf(GameData game) {
+        ChessGame chessGame = game.game() == null ? null : new ChessGame(game.game());
+        return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), chessGame);
+    }
+
+    private static final class LiveGame {
+        volatile GameData data;
+        volatile long lastUsed;
+        // guarded by this LiveGame
+        final List<GameMove> pendingMoves = new ArrayList<>();
+        boolean snapshotDue;
+        int snapshotPly;
+
+        /**
+         * @param snapshotDue True if the DAO's copy of the game may not match data
+         */
+        LiveGame(GameData data, boolean snapshotDue) {
+            this.data = data;
+            this.snapshotDue = snapshotDue;
+            this.snapshotPly = data.game() == null ? 0 : data.game().getPly();
+            touch();
+        }
+
+        void touch() {
+            lastUsed = System.nanoTime();
+        }
+    }
+}
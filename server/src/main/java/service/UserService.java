@@ -51,7 +51,12 @@ public class UserService {
     }
 
     public AuthData getAuth(String authToken) throws ResponseException {
-        return aDAO.getAuth(authToken);
+        AuthData auth = aDAO.getAuth(authToken);
+        if (auth == null) {
+            // the SQL DAO returns null for an unknown token rather than throwing
+            throw new ResponseException(401, "Error: Unauthorized");
+        }
+        return auth;
     }
 
     public void clearUsers() throws ResponseException {
@@ -0,0 +1,172 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTests {
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+
+    // Test getConnection() - Positive Case (a returned connection is reused rather than reopened)
+    @Test
+    public void testBorrowAndReturn() throws Exception {
+        ConnectionPool pool = pool(2, 1000);
+
+        Connection first = pool.getConnection();
+        assertEquals(1, pool.getActiveCount());
+        assertEquals("chess", opened.get(0).catalog);
+        first.setAutoCommit(false);
+        first.close();
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, first::getCatalog);
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+        // handed back in its default state
+        assertTrue(opened.get(0).autoCommit);
+        assertTrue(opened.get(0).rolledBack);
+
+        try (Connection second = pool.getConnection()) {
+            assertEquals("chess", second.getCatalog());
+        }
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(2, pool.getBorrowCount());
+        assertEquals(1, pool.getOpenCount());
+    }
+
+    // Test getConnection() - Negative Case (every connection borrowed past maxWait is a 503)
+    @Test
+    public void testTimeoutIs503() throws Exception {
+        ConnectionPool pool = pool(1, 50);
+        Connection held = pool.getConnection();
+
+        ResponseException e = assertThrows(ResponseException.class, pool::getConnection);
+        assertEquals(503, e.statusCode());
+        assertEquals(1, pool.getTimeoutCount());
+
+        held.close();
+        pool.getConnection().close();
+        assertEquals(1, pool.getCreatedCount());
+    }
+
+    // Test getConnection() - Positive Case (a connection idle long enough is validated, and a dead one replaced)
+    @Test
+    public void testStaleConnectionValidated() throws Exception {
+        ConnectionPool pool = pool(2, 1000);
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+        // past the window in which a recently used connection is trusted
+        Thread.sleep(1100);
+
+        try (Connection connection = pool.getConnection()) {
+            assertEquals("chess", connection.getCatalog());
+        }
+        assertEquals(1, opened.get(0).validations);
+        assertTrue(opened.get(0).closed);
+        assertEquals(1, pool.getDiscardedCount());
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(1, pool.getOpenCount());
+    }
+
+    // Test getConnection() - Positive Case (borrowers racing returns never open more than maxSize)
+    @Test
+    public void testNeverOpensPastMaxSize() throws Exception {
+        ConnectionPool pool = pool(3, 5000);
+        ExecutorService borrowers = Executors.newFixedThreadPool(8);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(borrowers.submit(() -> {
+                go.await();
+                for (int round = 0; round < 200; round++) {
+                    try (Connection ignored = pool.getConnection()) {
+                        assertTrue(pool.getOpenCount() <= 3);
+                    }
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        borrowers.shutdown();
+
+        assertTrue(pool.getCreatedCount() <= 3, pool.getCreatedCount() + " connections opened");
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1600, pool.getBorrowCount());
+    }
+
+    // Test ConnectionPool() - Negative Case (sizes out of order)
+    @Test
+    public void testRejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionPool(this::connect, "chess", 0, 0, 60_000, 100, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionPool(this::connect, "chess", 3, 2, 60_000, 100, 1));
+    }
+
+    private ConnectionPool pool(int maxSize, long maxWaitMillis) {
+        return new ConnectionPool(this::connect, "chess", 0, maxSize, 60_000, maxWaitMillis, 1);
+    }
+
+    private synchronized Connection connect() {
+        FakeConnection connection = new FakeConnection();
+        opened.add(connection);
+        return connection.proxy();
+    }
+
+    // just enough of a connection for the pool to manage
+    private static class FakeConnection {
+        volatile boolean autoCommit = true;
+        volatile boolean rolledBack;
+        volatile boolean valid = true;
+        volatile boolean closed;
+        volatile String catalog;
+        volatile int validations;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "getAutoCommit" -> autoCommit;
+                        case "setAutoCommit" -> {
+                            autoCommit = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            rolledBack = true;
+                            yield null;
+                        }
+                        case "getCatalog" -> catalog;
+                        case "setCatalog" -> {
+                            catalog = (String) args[0];
+                            yield null;
+                        }
+                        case "isValid" -> {
+                            validations++;
+                            yield valid;
+                        }
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed;
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "toString" -> "FakeConnection";
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package dataaccess;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCodecTests {
+
+    // Test encode() - Positive Case (a game in progress reads back whole)
+    @Test
+    public void testRoundTripInProgress() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null));
+        game.makeMove(new ChessMove(ChessPosition.of(4, 5), ChessPosition.of(5, 4), null));
+
+        ChessGame decoded = GameCodec.decode(GameCodec.encode(game));
+
+        assertEquals(game, decoded);
+        assertEquals(ChessGame.TeamColor.BLACK, decoded.getTeamTurn());
+        assertEquals(3, decoded.getPly());
+        assertFalse(decoded.isGameOver());
+        assertEquals(game.getZobristKey(), decoded.getZobristKey());
+    }
+
+    // Test encode() - Positive Case (promoted pieces, every piece kind, game over, large ply)
+    @Test
+    public void testRoundTripPromotedAndFinished() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        // a promoted white queen and knight on black's back rank, beside black's own pieces
+        board.addPiece(ChessPosition.of(8, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        board.addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        board.addPiece(ChessPosition.of(2, 1), null);
+        board.addPiece(ChessPosition.of(2, 2), null);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setGameOver(true);
+        game.setPly(0xFFFF);
+
+        ChessGame decoded = GameCodec.decode(GameCodec.encode(game));
+
+        assertEquals(board, decoded.getBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, decoded.getTeamTurn());
+        assertTrue(decoded.isGameOver());
+        assertEquals(0xFFFF, decoded.getPly());
+    }
+
+    // Test encode() - Negative Case (ply past what two bytes hold)
+    @Test
+    public void testRejectsTooLongGame() {
+        ChessGame game = new ChessGame();
+        game.setPly(0x10000);
+
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.encode(game));
+    }
+
+    // Test decode() - Positive Case (the first binary format, without a ply)
+    @Test
+    public void testDecodesVersionOne() {
+        ChessGame game = new ChessGame();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        game.setPly(40);
+        byte[] current = GameCodec.encode(game);
+        // version 1 had the format and flags bytes, then the same board
+        byte[] versionOne = new byte[current.length - 2];
+        versionOne[0] = 1;
+        versionOne[1] = current[1];
+        System.arraycopy(current, 4, versionOne, 2, 32);
+
+        ChessGame decoded = GameCodec.decode(versionOne);
+
+        assertEquals(game, decoded);
+        assertEquals(ChessGame.TeamColor.BLACK, decoded.getTeamTurn());
+        assertEquals(0, decoded.getPly());
+    }
+
+    // Test decode() - Positive Case (rows stored as JSON before the binary format)
+    @Test
+    public void testDecodesLegacyJson() {
+        String json = "  {\"turn\":\"BLACK\",\"gameOver\":true,\"board\":{\"board\":["
+                + "[{\"color\":\"WHITE\",\"type\":\"KING\"},null,null,null,null,null,null,null],"
+                + "[],[],[],[],[],[],"
+                + "[null,null,null,null,null,null,null,{\"color\":\"BLACK\",\"type\":\"KING\"}]]}}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(GameCodec.isLegacy(bytes));
+        ChessGame decoded = GameCodec.decode(bytes);
+
+        ChessBoard expected = new ChessBoard();
+        expected.addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        expected.addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        assertEquals(expected, decoded.getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, decoded.getTeamTurn());
+        assertTrue(decoded.isGameOver());
+    }
+
+    // Test decode() - Negative Case (bytes in neither format)
+    @Test
+    public void testRejectsUnknownFormat() {
+        assertNull(GameCodec.decode(null));
+        assertFalse(GameCodec.isLegacy(GameCodec.encode(new ChessGame())));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[]{9, 0, 0}));
+        byte[] badPiece = GameCodec.encode(new ChessGame());
+        badPiece[20] = (byte) 0xFF;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(badPiece));
+    }
+
+    // Test encodeMove() - Positive Case (every square pair and promotion)
+    @Test
+    public void testMoveRoundTrip() {
+        ChessPiece.PieceType[] promotions = {null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+                ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to += 7) {
+                for (ChessPiece.PieceType promotion : promotions) {
+                    ChessMove move = new ChessMove(ChessPosition.of(from / 8 + 1, from % 8 + 1),
+                            ChessPosition.of(to / 8 + 1, to % 8 + 1), promotion);
+                    assertEquals(move, GameCodec.decodeMove(GameCodec.encodeMove(move)));
+                }
+            }
+        }
+    }
+}
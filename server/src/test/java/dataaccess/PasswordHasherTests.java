@@ -0,0 +1,89 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTests {
+
+    // slow enough that a burst of requests is all submitted while the first one runs
+    private static final int SLOW_COST = 12;
+
+    // Test hash() - Positive Case (the configured cost is used, and the hash checks)
+    @Test
+    public void testHashUsesCost() throws ResponseException {
+        PasswordHasher hasher = new PasswordHasher(5, 1, 4, 10_000);
+        String hashed = hasher.hash("secret");
+
+        assertTrue(hashed.startsWith("$2a$05$"), hashed);
+        assertTrue(hasher.matches("secret", hashed));
+        assertFalse(hasher.matches("wrong", hashed));
+        assertEquals(3, hasher.getCompletedCount());
+        assertEquals(3, hasher.getHashLatency().getCount());
+        assertEquals(3, hasher.getQueueLatency().getCount());
+        assertTrue(hasher.getHashLatency().getValueAtQuantile(0.5) > 0);
+    }
+
+    // Test PasswordHasher() - Negative Case (cost out of BCrypt's range)
+    @Test
+    public void testRejectsBadCost() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(3, 1, 1, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(31, 1, 1, 1000));
+    }
+
+    // Test hash() - Negative Case (more passwords than threads and queue turn away with a 503)
+    @Test
+    public void testSaturatedRejectsWith503() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(SLOW_COST, 1, 1, 10_000);
+        List<Integer> statuses = hashAtOnce(hasher, 4);
+
+        // one running and one queued; the rest are turned away without waiting
+        assertEquals(2, statuses.stream().filter(status -> status == 200).count());
+        assertEquals(2, statuses.stream().filter(status -> status == 503).count());
+        assertEquals(2, hasher.getRejectedCount());
+    }
+
+    // Test hash() - Negative Case (a password still queued at the deadline is dropped, not hashed)
+    @Test
+    public void testTimeoutCancelsQueuedHash() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(SLOW_COST, 1, 4, 50);
+        List<Integer> statuses = hashAtOnce(hasher, 2);
+
+        assertEquals(List.of(503, 503), statuses);
+        assertEquals(0, hasher.getQueuedCount());
+        // the running hash can't be interrupted, but the queued one never starts
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (hasher.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        assertEquals(1, hasher.getCompletedCount());
+    }
+
+    private static List<Integer> hashAtOnce(PasswordHasher hasher, int count) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(count);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(callers.submit(() -> {
+                try {
+                    hasher.hash("secret");
+                    return 200;
+                } catch (ResponseException e) {
+                    return e.statusCode();
+                }
+            }));
+        }
+        List<Integer> statuses = new ArrayList<>();
+        for (Future<Integer> result : results) {
+            statuses.add(result.get());
+        }
+        callers.shutdown();
+        return statuses;
+    }
+}
@@ -2,6 +2,7 @@ package dataaccess;
 
 import service.GameService;
 import service.UserService;
+import chess.ChessGame;
 import model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -48,5 +49,19 @@ public class SQLTests {
             System.out.println("TRY BLOCK CAUSED AN EXCEPTION");
         }
     }
-}
 
+    // Test clear() - Positive Case (the DELETE keeps the auto-increment counter, so no ID is reused)
+    @Test
+    public void testClearDoesNotReuseGameIDs() throws ResponseException {
+        int highest = 0;
+        for (int i = 0; i < 3; i++) {
+            highest = Math.max(highest, gameDAO.createGame(new GameData(0, null, null, "beforeClear" + i, new ChessGame())));
+        }
+
+        gameDAO.clear();
+        int afterClear = gameDAO.createGame(new GameData(0, null, null, "afterClear", new ChessGame()));
+
+        assertTrue(afterClear > highest, afterClear + " was issued again after clear");
+        assertNotNull(gameDAO.getGame(afterClear));
+    }
+}
@@ -0,0 +1,73 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTests {
+
+    // Test bucket() - Positive Case (small values get a bucket each)
+    @Test
+    public void testSmallValuesExact() {
+        for (long value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.bucket(value));
+            assertEquals(value, LatencyHistogram.highestValueIn(LatencyHistogram.bucket(value)));
+        }
+    }
+
+    // Test bucket() - Positive Case (buckets are contiguous from 0 to Long.MAX_VALUE)
+    @Test
+    public void testBucketsContiguous() {
+        int last = LatencyHistogram.bucket(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueIn(last));
+        for (int bucket = 1; bucket <= last; bucket++) {
+            long lowest = LatencyHistogram.highestValueIn(bucket - 1) + 1;
+            assertEquals(bucket, LatencyHistogram.bucket(lowest));
+            assertEquals(bucket, LatencyHistogram.bucket(LatencyHistogram.highestValueIn(bucket)));
+        }
+    }
+
+    // Test highestValueIn() - Positive Case (a bucket's top is within 1/16 of any value in it)
+    @Test
+    public void testRelativeError() {
+        for (long value = 16; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 7) {
+            long highest = LatencyHistogram.highestValueIn(LatencyHistogram.bucket(value));
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / 16, "bucket too wide for " + value);
+        }
+    }
+
+    // Test getValueAtQuantile() - Positive Case (percentiles of a uniform spread)
+    @Test
+    public void testQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500_000L, histogram.getSum());
+        assertEquals(1_000_000, histogram.getMax());
+        assertWithin(500_000, histogram.getValueAtQuantile(0.5));
+        assertWithin(990_000, histogram.getValueAtQuantile(0.99));
+        // never past the largest value recorded
+        assertEquals(1_000_000, histogram.getValueAtQuantile(1.0));
+    }
+
+    // Test getValueAtQuantile() - Positive Case (nothing recorded, negative durations)
+    @Test
+    public void testEmptyAndNegative() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtQuantile(0.99));
+
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getValueAtQuantile(0.5));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 16,
+                "expected about " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,74 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRegistryTests {
+
+    // Test scrape() - Positive Case (counters and gauges in the text format)
+    @Test
+    public void testScrapeCountersAndGauges() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter("chess_b_total", "Bs", "route", "/game").add(3);
+        metrics.counter("chess_b_total", "Bs", "route", "/user").increment();
+        metrics.gauge("chess_a", "As", () -> 1.5);
+
+        assertEquals("""
+                # HELP chess_a As
+                # TYPE chess_a gauge
+                chess_a 1.5
+                # HELP chess_b_total Bs
+                # TYPE chess_b_total counter
+                chess_b_total{route="/game"} 3
+                chess_b_total{route="/user"} 1
+                """, metrics.scrape());
+    }
+
+    // Test counter() - Positive Case (the same name and labels give the same counter)
+    @Test
+    public void testCounterReused() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        LongAdder counter = metrics.counter("chess_c_total", "Cs", "command", "MAKE_MOVE");
+
+        assertSame(counter, metrics.counter("chess_c_total", "Cs", "command", "MAKE_MOVE"));
+        assertNotSame(counter, metrics.counter("chess_c_total", "Cs", "command", "LEAVE"));
+    }
+
+    // Test scrape() - Positive Case (histograms as summaries in seconds)
+    @Test
+    public void testScrapeHistogram() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        LatencyHistogram histogram = metrics.histogram("chess_d_seconds", "Ds", "route", "/db");
+        histogram.record(2_000_000_000L);
+        histogram.record(2_000_000_000L);
+
+        String scrape = metrics.scrape();
+        assertTrue(scrape.contains("# TYPE chess_d_seconds summary\n"));
+        assertTrue(scrape.contains("chess_d_seconds{route=\"/db\",quantile=\"0.5\"} 2\n"));
+        assertTrue(scrape.contains("chess_d_seconds{route=\"/db\",quantile=\"0.999\"} 2\n"));
+        assertTrue(scrape.contains("chess_d_seconds_sum{route=\"/db\"} 4\n"));
+        assertTrue(scrape.contains("chess_d_seconds_count{route=\"/db\"} 2\n"));
+    }
+
+    // Test scrape() - Positive Case (label values are escaped)
+    @Test
+    public void testLabelEscaping() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter("chess_e_total", "Es", "path", "a\"b\\c\nd").increment();
+
+        assertTrue(metrics.scrape().contains("chess_e_total{path=\"a\\\"b\\\\c\\nd\"} 1\n"));
+    }
+
+    // Test counter() - Negative Case (one name can't be two types, labels come in pairs)
+    @Test
+    public void testRejectsMisuse() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter("chess_f", "Fs");
+
+        assertThrows(IllegalArgumentException.class, () -> metrics.histogram("chess_f", "Fs"));
+        assertThrows(IllegalArgumentException.class, () -> metrics.counter("chess_g_total", "Gs", "route"));
+    }
+}
@@ -0,0 +1,86 @@
+package server;
+
+import dataaccess.RamAuthDAO;
+import dataaccess.RamUserDAO;
+import dataaccess.ResponseException;
+import model.UserData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.UserService;
+import spark.Request;
+import spark.Response;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHandlerTests {
+
+    private UserService userService;
+    private int status;
+    private Map<String, String> headers;
+
+    @BeforeEach
+    public void setUp() {
+        // a user store whose password hashing is always saturated
+        RamUserDAO saturated = new RamUserDAO() {
+            @Override
+            public void insertUser(UserData userData) throws ResponseException {
+                throw new ResponseException(503, "Error: too many logins at once, try again shortly");
+            }
+
+            @Override
+            public boolean authenticateUser(String username, String password) throws ResponseException {
+                throw new ResponseException(503, "Error: too many logins at once, try again shortly");
+            }
+        };
+        userService = new UserService(saturated, new RamAuthDAO());
+        headers = new HashMap<>();
+    }
+
+    // Test login() - Negative Case (saturated hashing answers 503 with Retry-After)
+    @Test
+    public void testLoginSaturated() {
+        Object body = new LoginHandler(userService).login(
+                request("{\"username\":\"a\",\"password\":\"b\"}"), response());
+
+        assertEquals(503, status);
+        assertEquals("1", headers.get("Retry-After"));
+        assertTrue(body.toString().contains("too many logins"));
+    }
+
+    // Test register() - Negative Case (saturated hashing answers 503 with Retry-After)
+    @Test
+    public void testRegisterSaturated() {
+        Object body = new RegisterHandler(userService).register(
+                request("{\"username\":\"a\",\"password\":\"b\",\"email\":\"c\"}"), response());
+
+        assertEquals(503, status);
+        assertEquals("1", headers.get("Retry-After"));
+        assertTrue(body.toString().contains("too many logins"));
+    }
+
+    private static Request request(String body) {
+        return new Request() {
+            @Override
+            public String body() {
+                return body;
+            }
+        };
+    }
+
+    private Response response() {
+        return new Response() {
+            @Override
+            public void status(int statusCode) {
+                status = statusCode;
+            }
+
+            @Override
+            public void header(String header, String value) {
+                headers.put(header, value);
+            }
+        };
+    }
+}
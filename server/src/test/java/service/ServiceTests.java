@@ -1,11 +1,21 @@
 package service;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
 import dataaccess.*;
 import model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import passoff.model.TestCreateRequest;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -112,6 +122,46 @@ public class ServiceTests {
         });
     }
 
+    // Test logoutUser() - Positive Case (a cached token stops working at once)
+    @Test
+    public void testLogoutUserInvalidatesCachedAuth() throws ResponseException {
+        CachingAuthDAO cachingAuthDAO = new CachingAuthDAO(authDAO, 60_000, 100);
+        UserService cachedUserService = new UserService(userDAO, cachingAuthDAO);
+        AuthData authData = cachedUserService.loginUser(existingUser.username(), existingUser.password());
+
+        assertEquals(authData, cachedUserService.getAuth(authData.authToken()));
+        assertEquals(1, cachingAuthDAO.getHits());
+
+        cachedUserService.logoutUser(authData.authToken());
+
+        assertThrows(ResponseException.class, () -> cachedUserService.getAuth(authData.authToken()));
+    }
+
+    // Test registerUser() - Negative Case (only one of many racing registrations wins)
+    @Test
+    public void testRegisterUserConcurrentlyOnlyOnce() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                try {
+                    userDAO.insertUser(newUser);
+                    return true;
+                } catch (ResponseException e) {
+                    return false;
+                }
+            }));
+        }
+        int successes = 0;
+        for (Future<Boolean> result : results) {
+            successes += result.get() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertEquals(1, successes);
+    }
+
     // Test clearUsers() - Positive Case
     @Test
     public void testClearUsers() throws ResponseException {
@@ -132,6 +182,21 @@ public class ServiceTests {
         assertTrue(response.gameID() > 0);  // Assuming the gameID is a positive number
     }
 
+    // Test createGame() - Positive Case (IDs are distinct and increasing, even across a clear)
+    @Test
+    public void testCreateGameAllocatesIncreasingIDs() throws ResponseException {
+        int previous = 0;
+        for (int i = 0; i < 5; i++) {
+            int gameID = gameService.createGame("testGame" + i, existingAuth).gameID();
+            assertTrue(gameID > previous);
+            previous = gameID;
+        }
+
+        gameService.clearGames();
+
+        assertTrue(gameService.createGame("afterClear", existingAuth).gameID() > previous);
+    }
+
     // Test createGame() - Negative Case (Invalid Token)
     @Test
     public void testCreateGameFailure() {
@@ -154,6 +219,23 @@ public class ServiceTests {
         assertFalse(response.games().isEmpty());  // Assuming there are games in the list
     }
 
+    // Test listGames() - Positive Case (pages follow the cursor, filters apply)
+    @Test
+    public void testListGamesPagesAndFilters() throws ResponseException {
+        for (String name : new String[]{"lobbyA", "lobbyB", "other"}) {
+            gameService.createGame(name, existingAuth);
+        }
+
+        GameListResponse first = gameService.listGames(existingAuth, GameFilter.ALL, null, 2);
+        GameListResponse second = gameService.listGames(existingAuth, GameFilter.ALL, first.nextCursor(), 2);
+
+        assertEquals(2, first.games().size());
+        assertEquals(1, second.games().size());
+        assertNull(second.nextCursor());
+        assertTrue(first.games().get(1).gameID() < second.games().get(0).gameID());
+        assertEquals(2, gameService.listGames(existingAuth, new GameFilter(true, null, "lobby"), null, 10).games().size());
+    }
+
     // Test listGames() - Negative Case (Invalid Token)
     @Test
     public void testListGamesFailure() {
@@ -177,6 +259,42 @@ public class ServiceTests {
         assertTrue(result);  // Ensure the join was successful
     }
 
+    // Test joinGame() - Positive Case (joining changes only the seat, not moves already made)
+    @Test
+    public void testJoinGameKeepsMovesMade() throws Exception {
+        int gameID = gameService.createGame("testGame6", existingAuth).gameID();
+        GameData game = gameService.getGameData(existingAuth, gameID);
+        ChessMove move = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        game.game().makeMove(move);
+        gameService.updateGame(existingAuth, game, move);
+
+        gameService.joinGame(existingAuth, new JoinRequest("BLACK", gameID));
+
+        GameData joined = gameService.getGameData(existingAuth, gameID);
+        assertEquals(existingUser.username(), joined.blackUsername());
+        assertEquals(1, joined.game().getPly());
+        assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGame(gameID).game().getTeamTurn());
+        assertThrows(ResponseException.class, () ->
+                gameService.joinGame(existingAuth, new JoinRequest("BLACK", gameID)));
+    }
+
+    // Test updateGame() - Positive Case (a move made on a copy read before a join keeps the new seat)
+    @Test
+    public void testUpdateGameKeepsPlayerSeatedSinceRead() throws Exception {
+        int gameID = gameService.createGame("testGame8", existingAuth).gameID();
+        GameData game = gameService.getGameData(existingAuth, gameID);
+
+        gameService.joinGame(existingAuth, new JoinRequest("BLACK", gameID));
+        ChessMove move = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        game.game().makeMove(move);
+        gameService.updateGame(existingAuth, game, move);
+        gameService.shutdown();
+
+        assertEquals(existingUser.username(), gameService.getGameData(existingAuth, gameID).blackUsername());
+        assertEquals(existingUser.username(), gameDAO.getGame(gameID).blackUsername());
+        assertEquals(1, gameDAO.getGame(gameID).game().getPly());
+    }
+
     // Test joinGame() - Negative Case (Slot Already Taken)
     @Test
     public void testJoinGameFailure() {
@@ -189,6 +307,52 @@ public class ServiceTests {
         });
     }
 
+    // Test updateGame() - Positive Case (moves reach the DAO by shutdown)
+    @Test
+    public void testUpdateGameWrittenBackOnShutdown() throws Exception {
+        int gameID = gameService.createGame("testGame4", existingAuth).gameID();
+        GameData game = gameService.getGameData(existingAuth, gameID);
+        game.game().makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        gameService.updateGame(existingAuth, game);
+
+        gameService.shutdown();
+
+        assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGame(gameID).game().getTeamTurn());
+    }
+
+    // Test listMoves() - Positive Case (written-back moves replay onto the stored snapshot)
+    @Test
+    public void testListMovesReplaysOntoSnapshot() throws Exception {
+        int gameID = gameService.createGame("testGame5", existingAuth).gameID();
+        ChessMove first = new ChessMove(ChessPosition.of(2, 4), ChessPosition.of(4, 4), null);
+        ChessMove second = new ChessMove(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null);
+        for (ChessMove move : new ChessMove[]{first, second}) {
+            GameData game = gameService.getGameData(existingAuth, gameID);
+            game.game().makeMove(move);
+            gameService.updateGame(existingAuth, game, move);
+        }
+
+        gameService.shutdown();
+
+        assertEquals(2, gameDAO.listMoves(gameID).size());
+        assertEquals(second, gameDAO.listMoves(gameID).get(1).move());
+        assertEquals(2, gameDAO.getGame(gameID).game().getPly());
+    }
+
+    // Test appendMoves() - Positive Case (a retried batch replaces moves instead of repeating them)
+    @Test
+    public void testAppendMovesRetryKeepsOneMovePerPly() throws ResponseException {
+        int gameID = gameService.createGame("testGame7", existingAuth).gameID();
+        List<GameMove> batch = List.of(
+                new GameMove(gameID, 1, new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null), Instant.now()),
+                new GameMove(gameID, 2, new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null), Instant.now()));
+
+        gameDAO.appendMoves(batch);
+        gameDAO.appendMoves(batch);
+
+        assertEquals(batch, gameDAO.listMoves(gameID));
+    }
+
     // Test clearGames() - Positive Case
     @Test
     public void testClearGames() throws ResponseException {
@@ -16,10 +16,10 @@ public class AddMovesInDirection {
         while (true) {
             row += rowOffset;
             col += colOffset;
-            ChessPosition target = new ChessPosition(row, col);
-            if (target.outOfBounds(row, col)) {
+            if (position.outOfBounds(row, col)) {
                 break;
             }
+            ChessPosition target = ChessPosition.of(row, col);
             if (squareEmpty(board, target)) {
                 moves.add(new ChessMove(position, target, null));
             } else { // either friendly or enemy piece. if enemy, add move and break. if friend, just break
@@ -1,60 +1,73 @@
 package chess;
 
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * The board is stored as one 64-bit bitboard per color and piece type, plus an
+ * occupancy mask per color. Bit {@code (row - 1) * 8 + (col - 1)} represents the
+ * square at that row and column.
  */
 public class ChessBoard {
-    private ChessPiece[][] board;
+    private static final int PIECE_TYPES = ChessPiece.PieceType.values().length;
+    private static final ChessPiece[] PIECES = new ChessPiece[PIECE_TYPES * 2];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                PIECES[pieceIndex(color, type)] = ChessPiece.of(color, type);
+            }
+        }
+    }
+
+    // indexed by pieceIndex(color, type)
+    private long[] pieces;
+    // indexed by TeamColor.ordinal()
+    private long[] occupancy;
+    // Zobrist key of the pieces on the board, kept up to date by addPiece
+    private long key;
 
     public ChessBoard() {
-        board = new ChessPiece[8][8];
+        pieces = new long[PIECE_TYPES * 2];
+        occupancy = new long[2];
     }
 
     public ChessBoard(ChessBoard copy) {
-        board = new ChessPiece[8][8];
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (copy.board[i][j] != null) {
-                    board[i][j] = new ChessPiece(copy.board[i][j]);
-                } else {
-                    board[i][j] = null;
-                }
-            }
-        }
+        pieces = copy.pieces.clone();
+        occupancy = copy.occupancy.clone();
+        key = copy.key;
     }
 
     private void initializeBoard() {
         for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(2, i), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         }
         for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, i), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
 
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
 
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
 
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
     }
 
     /**
@@ -64,9 +77,15 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        int row = position.getRow();
-        int col = position.getColumn();
-        this.board[row-1][col-1] = piece;
+        int square = square(position);
+        long mask = 1L << square;
+        removePiece(square, mask);
+        if (piece != null) {
+            int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+            pieces[index] |= mask;
+            occupancy[piece.getTeamColor().ordinal()] |= mask;
+            key ^= Zobrist.piece(index, square);
+        }
     }
 
     /**
@@ -77,9 +96,7 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        int row = position.getRow();
-        int col = position.getColumn();
-        return board[row-1][col-1];
+        return getPiece(square(position));
     }
 
     /**
@@ -87,28 +104,178 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        board = new ChessPiece[8][8];
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(occupancy, 0L);
+        key = 0L;
         initializeBoard();
     }
 
+    /**
+     * Gets the position of a team's king. The king bitboard is updated by every
+     * addPiece call, so this is a single bit scan rather than a search of the board.
+     *
+     * @param color the team whose king to find
+     * @return the king's position, or null if that team has no king on the board
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = getKingSquare(color);
+        if (square < 0) {
+            return null;
+        }
+        return ChessPosition.ofSquare(square);
+    }
+
+    /**
+     * @return the square index of the team's king, or -1 if that team has no king
+     */
+    int getKingSquare(ChessGame.TeamColor color) {
+        long kings = pieces[pieceIndex(color, ChessPiece.PieceType.KING)];
+        return kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+    }
+
+    ChessPiece getPiece(int square) {
+        long mask = 1L << square;
+        for (int color = 0; color < 2; color++) {
+            if ((occupancy[color] & mask) != 0) {
+                for (int index = color * PIECE_TYPES; index < (color + 1) * PIECE_TYPES; index++) {
+                    if ((pieces[index] & mask) != 0) {
+                        return PIECES[index];
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void removePiece(int square, long mask) {
+        for (int color = 0; color < 2; color++) {
+            if ((occupancy[color] & mask) != 0) {
+                occupancy[color] &= ~mask;
+                for (int index = color * PIECE_TYPES; index < (color + 1) * PIECE_TYPES; index++) {
+                    if ((pieces[index] & mask) != 0) {
+                        pieces[index] &= ~mask;
+                        key ^= Zobrist.piece(index, square);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the Zobrist key of the pieces on this board. It is updated as pieces are
+     * added and removed, so reading it is free; equal boards always have equal keys.
+     *
+     * @return the 64-bit Zobrist key of this board
+     */
+    public long getZobristKey() {
+        return key;
+    }
+
+    /**
+     * @return a copy of the piece bitboards, one per color and piece type, in the order
+     * {@link #fromPieces(long[])} takes them
+     */
+    public long[] copyPieces() {
+        return pieces.clone();
+    }
+
+    /**
+     * Builds a board from piece bitboards taken with {@link #copyPieces()}. If two
+     * bitboards claim the same square, the later one's piece is kept.
+     *
+     * @param bitboards one bitboard per color and piece type
+     * @return a board holding those pieces
+     */
+    public static ChessBoard fromPieces(long[] bitboards) {
+        if (bitboards.length != PIECES.length) {
+            throw new IllegalArgumentException("Expected " + PIECES.length + " bitboards, got " + bitboards.length);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int index = 0; index < bitboards.length; index++) {
+            for (long bits = bitboards[index]; bits != 0; bits &= bits - 1) {
+                board.addPiece(ChessPosition.ofSquare(Long.numberOfTrailingZeros(bits)), PIECES[index]);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @return True if this board's piece bitboards match ones taken with {@link #copyPieces()}
+     */
+    boolean hasPieces(long[] snapshot) {
+        return Arrays.equals(pieces, snapshot);
+    }
+
+    /**
+     * @return the bitboard of every square holding a piece of the given color and type
+     */
+    long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return the bitboard of every square holding a piece of the given color
+     */
+    long getOccupancy(ChessGame.TeamColor color) {
+        return occupancy[color.ordinal()];
+    }
+
+    /**
+     * @return the bitboard of every occupied square
+     */
+    long getOccupancy() {
+        return occupancy[0] | occupancy[1];
+    }
+
+    static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + (position.getColumn() - 1);
+    }
+
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return key == that.key && Arrays.equals(pieces, that.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(key);
     }
 
     @Override
     public String toString() {
+        StringBuilder ranks = new StringBuilder();
+        for (int row = 8; row >= 1; row--) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = getPiece((row - 1) * 8 + (col - 1));
+                ranks.append(piece == null ? '.' : pieceLetter(piece));
+            }
+            if (row > 1) {
+                ranks.append('/');
+            }
+        }
         return "ChessBoard{" +
-                "board=" + Arrays.toString(board) +
+                "board=" + ranks +
                 '}';
     }
+
+    private static char pieceLetter(ChessPiece piece) {
+        char letter = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(letter) : letter;
+    }
 }
@@ -1,6 +1,5 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
 
@@ -15,6 +14,8 @@ public class ChessGame {
     private ChessBoard board;
 
     private boolean gameOver;
+    // moves played so far
+    private int ply;
 
 
     public ChessGame() {
@@ -23,6 +24,19 @@ public class ChessGame {
         board.resetBoard();
     }
 
+    /**
+     * Creates an independent copy of a game; moves made on the copy leave the original
+     * untouched
+     *
+     * @param copy the game to copy
+     */
+    public ChessGame(ChessGame copy) {
+        this.turn = copy.turn;
+        this.board = new ChessBoard(copy.board);
+        this.gameOver = copy.gameOver;
+        this.ply = copy.ply;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -50,7 +64,18 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(turn, board);
+        return Long.hashCode(getZobristKey());
+    }
+
+    /**
+     * Gets the Zobrist key of this position: the board's key, combined with a key for
+     * the side to move. Equal positions always have equal keys, and different positions
+     * almost never do, so it is suited to caching and repetition checks.
+     *
+     * @return the 64-bit Zobrist key of the current position
+     */
+    public long getZobristKey() {
+        return turn == TeamColor.BLACK ? board.getZobristKey() ^ Zobrist.BLACK_TO_MOVE : board.getZobristKey();
     }
 
     /**
@@ -61,6 +86,17 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Everything needed to take back a move made with {@link #applyMove(ChessMove)}
+     *
+     * @param move          the move that was made
+     * @param movedPiece    the piece that stood on the start position
+     * @param capturedPiece the piece that stood on the end position, or null
+     * @param priorTurn     whose turn it was before the move
+     */
+    public record MoveUndo(ChessMove move, ChessPiece movedPiece, ChessPiece capturedPiece, TeamColor priorTurn) {
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -69,26 +105,12 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        if (board.getPiece(startPosition) == null) {
+        ChessPiece piece = board.getPiece(startPosition);
+        if (piece == null) {
             return null;
         }
-        TeamColor color = board.getPiece(startPosition).getTeamColor();
         // both players should always be able to call this, so don't use makeMove because that checks for turn
-        Collection<ChessMove> initialMoves = board.getPiece(startPosition).pieceMoves(board, startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
-        for (ChessMove move : initialMoves) {
-            ChessGame copyGame = new ChessGame();
-            ChessBoard testBoard = new ChessBoard(board);
-            copyGame.setBoard(testBoard);
-            // execute the move
-            copyGame.testMove(move);
-
-            // check if that leaves it in check
-            if (!copyGame.isInCheck(color)) {
-                validMoves.add(move);
-            }
-        }
-        return validMoves;
+        return MoveCache.SHARED.legalMoves(board, piece.getTeamColor(), startPosition);
     }
 
     /**
@@ -98,10 +120,7 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        ChessPosition startPos = move.getStartPosition();
-        ChessPosition endPos = move.getEndPosition();
-
-        ChessPiece piece = board.getPiece(startPos);
+        ChessPiece piece = board.getPiece(move.getStartPosition());
 
         if (piece == null) {
             throw new InvalidMoveException("No piece at the starting position!");
@@ -110,58 +129,56 @@ public class ChessGame {
         if (color != getTeamTurn()) {
             throw new InvalidMoveException("It's not your turn!");
         }
-        Collection<ChessMove> validMoves = validMoves(startPos);
-        System.out.println(validMoves);
-        if (validMoves.contains(move))
-            {
-                if (move.getPromotionPiece() != null) {
-                    board.addPiece(endPos, new ChessPiece(turn, move.getPromotionPiece()));
-                    board.addPiece(startPos, null);
-                }
-                else {
-                    board.addPiece(endPos, piece);
-                    board.addPiece(startPos, null);
-                }
-            }
-        else {
+        Collection<ChessMove> validMoves = validMoves(move.getStartPosition());
+        if (!validMoves.contains(move)) {
             throw new InvalidMoveException("That is not a valid move");
         }
-        if (turn == TeamColor.WHITE) {
-            setTeamTurn(TeamColor.BLACK);
-        }
-        else {
-            setTeamTurn(TeamColor.WHITE);
-        }
+        applyMove(move);
     }
 
-    public void testMove(ChessMove move) {
+    /**
+     * Plays a move on the board without checking that it is legal, and passes the
+     * turn to the other team
+     *
+     * @param move the move to play; there must be a piece at its start position
+     * @return the record needed to take the move back with {@link #undoMove(MoveUndo)}
+     */
+    public MoveUndo applyMove(ChessMove move) {
         ChessPosition startPos = move.getStartPosition();
         ChessPosition endPos = move.getEndPosition();
+        ChessPiece piece = board.getPiece(startPos);
+        ChessPiece captured = board.getPiece(endPos);
 
         if (move.getPromotionPiece() != null) {
-            board.addPiece(endPos, new ChessPiece(turn, move.getPromotionPiece()));
-            board.addPiece(startPos, null);
+            board.addPiece(endPos, ChessPiece.of(piece.getTeamColor(), move.getPromotionPiece()));
         }
         else {
-            ChessPiece piece = board.getPiece(startPos);
             board.addPiece(endPos, piece);
-            board.addPiece(startPos, null);
         }
+        board.addPiece(startPos, null);
+
+        MoveUndo undo = new MoveUndo(move, piece, captured, turn);
+        turn = piece.getTeamColor() == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        ply++;
+        return undo;
+    }
+
+    /**
+     * Takes back a move made with {@link #applyMove(ChessMove)}. Moves must be taken
+     * back in the reverse order they were made.
+     *
+     * @param undo the record returned when the move was made
+     */
+    public void undoMove(MoveUndo undo) {
+        board.addPiece(undo.move().getStartPosition(), undo.movedPiece());
+        board.addPiece(undo.move().getEndPosition(), undo.capturedPiece());
+        turn = undo.priorTurn();
+        ply--;
     }
 
 
     public ChessPosition findKing(ChessBoard board, TeamColor color) {
-        for (int i = 1; i <= 8; i++) {
-            for (int k = 1; k <= 8; k++) {
-                ChessPosition currentPos = new ChessPosition(i, k);
-                ChessPiece currentPiece = board.getPiece(currentPos);
-                if (currentPiece != null && currentPiece.getPieceType() == ChessPiece.PieceType.KING && currentPiece.getTeamColor() == color) {
-                    return currentPos;
-                }
-            }
-        }
-        System.out.println(color + " King not found...");
-        return null;
+        return board.getKingPosition(color);
     }
 
     /**
@@ -172,189 +189,9 @@ public class ChessGame {
      */
 
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = findKing(board, teamColor);
-
-
-        // Check diagonal danger
-        if (checkDiagonalDanger(kingPosition, teamColor, 1, 1) ||
-                checkDiagonalDanger(kingPosition, teamColor, 1, -1) ||
-                checkDiagonalDanger(kingPosition, teamColor, -1, 1) ||
-                checkDiagonalDanger(kingPosition, teamColor, -1, -1)) {
-            return true;
-        }
-
-        // Check knight danger
-        if (checkKnightDanger(kingPosition, teamColor)) {
-            return true;
-        }
-
-        // Check straight danger
-        if (checkStraightDanger(kingPosition, teamColor, 1, 0) ||
-                checkStraightDanger(kingPosition, teamColor, -1, 0) ||
-                checkStraightDanger(kingPosition, teamColor, 0, -1) ||
-                checkStraightDanger(kingPosition, teamColor, 0, 1)) {
-            return true;
-        }
-
-        // Check pawn danger
-        if (checkPawnDanger(kingPosition, teamColor)) {
-            return true;
-        }
-//
-
-        // If none of the checks found danger, return false
-        return false;
-    }
-
-    private boolean isSquareEmpty(ChessBoard board, ChessPosition square) {
-        return board.getPiece(square) == null;
-    }
-
-    private boolean isInBounds(ChessPosition target) {
-        int row = target.getRow();
-        int col = target.getColumn();
-
-        return row <= 8 && col <= 8 && row >= 1 && col >= 1;
-    }
-
-    public boolean checkDiagonalDanger(ChessPosition kingPosition, TeamColor kingColor, int rowDirection, int colDirection) {
-        int startRow = kingPosition.getRow();
-        int startCol = kingPosition.getColumn();
-        ChessPosition first = new ChessPosition(startRow + rowDirection, startCol + colDirection);
-
-        if (isInBounds(first) && !isSquareEmpty(board, first) && board.getPiece(first).getPieceType() == ChessPiece.PieceType.KING) {
-            return true;
-        }
-
-        while (true) {
-            startRow += rowDirection;
-            startCol += colDirection;
-            ChessPosition target = new ChessPosition(startRow, startCol);
-            if (!isInBounds(target)) {
-                break;
-            }
-            if (!isSquareEmpty(board, target)) {
-                ChessPiece piece = board.getPiece(target);
-                TeamColor color = piece.getTeamColor();
-                ChessPiece.PieceType type = piece.getPieceType();
-                if (color == kingColor) {
-                    break;
-                }
-                if (type == ChessPiece.PieceType.QUEEN || type == ChessPiece.PieceType.BISHOP) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    public boolean checkStraightDanger(ChessPosition kingPosition, TeamColor kingColor, int rowDirection, int colDirection) {
-        int startRow = kingPosition.getRow();
-        int startCol = kingPosition.getColumn();
-
-        ChessPosition first = new ChessPosition(startRow + rowDirection, startCol + colDirection);
-
-        if (isInBounds(first) && !isSquareEmpty(board, first) && board.getPiece(first).getPieceType() == ChessPiece.PieceType.KING) {
-            return true;
-        }
-
-
-        while (true) {
-            startRow += rowDirection;
-            startCol += colDirection;
-            ChessPosition target = new ChessPosition(startRow, startCol);
-            if (!isInBounds(target)) {
-                break;
-            }
-            if (!isSquareEmpty(board, target)) {
-                ChessPiece piece = board.getPiece(target);
-                TeamColor color = piece.getTeamColor();
-                ChessPiece.PieceType type = piece.getPieceType();
-                if (color == kingColor) {
-                    break;
-                }
-                if (type == ChessPiece.PieceType.QUEEN || type == ChessPiece.PieceType.ROOK) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return LegalMoveGenerator.isInCheck(board, teamColor);
     }
 
-    public boolean checkKnightDanger(ChessPosition kingPosition, TeamColor kingColor) {
-        int kingRow = kingPosition.getRow();
-        int kingCol = kingPosition.getColumn();
-        int[][] possibleMoves = {
-                {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
-                {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
-        };
-        for (int[] move : possibleMoves) {
-            ChessPosition check = new ChessPosition(kingRow + move[0], kingCol + move[1]);
-            if (isInBounds(check) && !isSquareEmpty(board, check)) {
-                ChessPiece target = board.getPiece(check);
-                if (target.getPieceType() == ChessPiece.PieceType.KNIGHT && target.getTeamColor() != kingColor) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    public boolean checkPawnDanger(ChessPosition kingPosition, TeamColor color) {
-        int kingRow = kingPosition.getRow();
-        int kingCol = kingPosition.getColumn();
-        if (color == TeamColor.WHITE) {
-            ChessPosition diagRight = new ChessPosition(kingRow + 1, kingCol + 1);
-            ChessPosition diagLeft = new ChessPosition(kingRow + 1, kingCol - 1);
-            if (isInBounds(diagLeft)) {
-                if (
-                        !isSquareEmpty(board, diagLeft) &&
-                        board.getPiece(diagLeft).getPieceType() == ChessPiece.PieceType.PAWN &&
-                        board.getPiece(diagLeft).getTeamColor() != color
-                ) {
-                    return true;
-                }
-            }
-            if (extracted(color, diagRight)) {
-                return true;
-            }
-        } else {
-            ChessPosition diagRight = new ChessPosition(kingRow - 1, kingCol + 1);
-            ChessPosition diagLeft = new ChessPosition(kingRow - 1, kingCol - 1);
-            if (isInBounds(diagLeft)) {
-                if (
-                        !isSquareEmpty(board, diagLeft) &&
-                        board.getPiece(diagLeft).getPieceType() ==
-                        ChessPiece.PieceType.PAWN &&
-                        board.getPiece(diagLeft).getTeamColor() !=
-                        color)
-                {
-                    return true;
-                }
-            }
-            if (extracted(color, diagRight)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean extracted(TeamColor color, ChessPosition diagRight) {
-        if (isInBounds(diagRight)) {
-            if (
-                    !isSquareEmpty(board, diagRight) &&
-                    board.getPiece(diagRight).getPieceType() ==
-                    ChessPiece.PieceType.PAWN &&
-                    board.getPiece(diagRight).getTeamColor() !=
-                            color)
-            {
-                return true;
-            }
-        }
-        return false;
-    }
-
-
     /**
      * Determines if the given team is in checkmate
      *
@@ -362,16 +199,8 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        for (int i = 1; i <= 8; i++) {
-            for (int k = 1; k <= 8; k++) {
-                ChessPosition currentPos = new ChessPosition(i, k);
-                if (!isSquareEmpty(board, currentPos) && board.getPiece(currentPos).getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(currentPos);
-                    if (moves != null && !moves.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
+        if (!MoveCache.SHARED.isCheckmate(board, teamColor)) {
+            return false;
         }
         setGameOver(true);
         return true;
@@ -385,19 +214,9 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
+        if (!MoveCache.SHARED.isStalemate(board, teamColor)) {
             return false;
         }
-        for (int i = 1; i <= 8; i++) {
-            for (int k = 1; k <= 8; k++) {
-                ChessPosition currentPos = new ChessPosition(i, k);
-                if (!isSquareEmpty(board, currentPos) && board.getPiece(currentPos).getTeamColor() == teamColor) {
-                    if (!validMoves(currentPos).isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
         setGameOver(true);
         return true;
     }
@@ -410,6 +229,22 @@ public class ChessGame {
         return gameOver;
     }
 
+    /**
+     * @return the number of moves played in this game so far
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Sets the number of moves played, for a game restored from storage
+     *
+     * @param ply the number of moves played
+     */
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
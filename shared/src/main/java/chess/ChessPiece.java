@@ -10,14 +10,39 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPiece {
-    private ChessGame.TeamColor color;
-    private ChessPiece.PieceType type;
+    private static final ChessPiece[] PIECES =
+            new ChessPiece[ChessGame.TeamColor.values().length * PieceType.values().length];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[index(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    private final ChessGame.TeamColor color;
+    private final ChessPiece.PieceType type;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.color = pieceColor;
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a color and type. Pieces are immutable, so one
+     * instance of each of the 12 kinds can be reused everywhere.
+     *
+     * @return the canonical piece of that color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[index(pieceColor, type)];
+    }
+
+    private static int index(ChessGame.TeamColor color, PieceType type) {
+        return color.ordinal() * PieceType.values().length + type.ordinal();
+    }
+
     public ChessPiece(ChessPiece copy) {
         this.color = copy.color;
         this.type = copy.type;
@@ -17,7 +17,7 @@ public class KingMoveCalculator implements ChessPieceMoveCalculator {
 
         for (int[] move : potentialMoves) {
             if (validateMove(board, position, move, color)) {
-                moves.add(new ChessMove(position, new ChessPosition(row + move[0], col + move[1]), null));
+                moves.add(new ChessMove(position, ChessPosition.of(row + move[0], col + move[1]), null));
             }
         }
 
@@ -30,7 +30,7 @@ public class KingMoveCalculator implements ChessPieceMoveCalculator {
         if (position.outOfBounds(targetRow, targetCol)) {
             return false;
         }
-        ChessPosition target = new ChessPosition(targetRow, targetCol);
+        ChessPosition target = ChessPosition.of(targetRow, targetCol);
         if (squareEmpty(board, target)) {
             return true;
         }
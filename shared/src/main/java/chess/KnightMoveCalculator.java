@@ -16,7 +16,10 @@ public class KnightMoveCalculator implements ChessPieceMoveCalculator {
         for (int[] move : possibleMoves) {
             int newRow = position.getRow() + move[0];
             int newCol = position.getColumn() + move[1];
-            ChessPosition newPos = new ChessPosition(newRow, newCol);
+            if (position.outOfBounds(newRow, newCol)) {
+                continue;
+            }
+            ChessPosition newPos = ChessPosition.of(newRow, newCol);
             if (isValidMove(board, newPos, color)) {
                 moves.add(new ChessMove(position, newPos, null));
             }
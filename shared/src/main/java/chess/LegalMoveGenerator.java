@@ -0,0 +1,313 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Generates only legal moves for one team, working directly on the board's bitboards.
+ * <p>
+ * The pieces giving check and the pieces pinned to the king are found once when the
+ * generator is created, using precomputed attack and ray tables. Every move produced
+ * afterward is legal, so no move ever has to be played out to see whether it leaves
+ * the king in check.
+ */
+public class LegalMoveGenerator {
+
+    // ray directions as {row step, column step}; the first four move toward higher squares
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {0, 1}, {1, 1}, {1, -1},
+            {-1, 0}, {0, -1}, {-1, -1}, {-1, 1}
+    };
+    private static final int[] ROOK_DIRECTIONS = {0, 1, 4, 5};
+    private static final int[] BISHOP_DIRECTIONS = {2, 3, 6, 7};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    // indexed by [TeamColor.ordinal()][square]: the squares a pawn of that color attacks
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    // indexed by [direction][square]: every square from square to the edge, exclusive
+    private static final long[][] RAYS = new long[8][64];
+    private static final long[] ROOK_RAYS = new long[64];
+    private static final long[] BISHOP_RAYS = new long[64];
+    // indexed by [from][to]: squares strictly between two aligned squares, otherwise 0
+    private static final long[][] BETWEEN = new long[64][64];
+    // indexed by [from][to]: the whole line through two aligned squares, otherwise 0
+    private static final long[][] LINE = new long[64][64];
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP
+    };
+
+    static {
+        int[][] knightSteps = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+        for (int square = 0; square < 64; square++) {
+            int row = square / 8;
+            int col = square % 8;
+            for (int[] step : knightSteps) {
+                KNIGHT_ATTACKS[square] |= bit(row + step[0], col + step[1]);
+            }
+            for (int[] step : DIRECTIONS) {
+                KING_ATTACKS[square] |= bit(row + step[0], col + step[1]);
+            }
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = bit(row + 1, col - 1) | bit(row + 1, col + 1);
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = bit(row - 1, col - 1) | bit(row - 1, col + 1);
+
+            for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                int targetRow = row + DIRECTIONS[direction][0];
+                int targetCol = col + DIRECTIONS[direction][1];
+                long between = 0L;
+                while (bit(targetRow, targetCol) != 0) {
+                    int target = targetRow * 8 + targetCol;
+                    RAYS[direction][square] |= 1L << target;
+                    BETWEEN[square][target] = between;
+                    between |= 1L << target;
+                    targetRow += DIRECTIONS[direction][0];
+                    targetCol += DIRECTIONS[direction][1];
+                }
+            }
+            for (int direction : ROOK_DIRECTIONS) {
+                ROOK_RAYS[square] |= RAYS[direction][square];
+            }
+            for (int direction : BISHOP_DIRECTIONS) {
+                BISHOP_RAYS[square] |= RAYS[direction][square];
+            }
+        }
+        for (int square = 0; square < 64; square++) {
+            for (int direction = 0; direction < 4; direction++) {
+                long line = RAYS[direction][square] | RAYS[direction + 4][square] | (1L << square);
+                for (long ray = RAYS[direction][square] | RAYS[direction + 4][square]; ray != 0; ray &= ray - 1) {
+                    LINE[square][Long.numberOfTrailingZeros(ray)] = line;
+                }
+            }
+        }
+    }
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor color;
+    private final ChessGame.TeamColor enemy;
+    private final long own;
+    private final long occupied;
+    private final int kingSquare;
+    private final long checkers;
+    private final long pinned;
+
+    public LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor color) {
+        this.board = board;
+        this.color = color;
+        this.enemy = opponent(color);
+        this.own = board.getOccupancy(color);
+        this.occupied = board.getOccupancy();
+
+        kingSquare = board.getKingSquare(color);
+        if (kingSquare < 0) {
+            // without a king nothing can be in check or pinned
+            checkers = 0L;
+            pinned = 0L;
+            return;
+        }
+        checkers = attackersOf(board, kingSquare, enemy, occupied);
+
+        long pins = 0L;
+        long rookSnipers = ROOK_RAYS[kingSquare] & (board.getBitboard(enemy, ChessPiece.PieceType.ROOK)
+                | board.getBitboard(enemy, ChessPiece.PieceType.QUEEN));
+        long bishopSnipers = BISHOP_RAYS[kingSquare] & (board.getBitboard(enemy, ChessPiece.PieceType.BISHOP)
+                | board.getBitboard(enemy, ChessPiece.PieceType.QUEEN));
+        for (long snipers = rookSnipers | bishopSnipers; snipers != 0; snipers &= snipers - 1) {
+            long blockers = BETWEEN[kingSquare][Long.numberOfTrailingZeros(snipers)] & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pins |= blockers;
+            }
+        }
+        pinned = pins;
+    }
+
+    /**
+     * @return True if this generator's team is in check
+     */
+    public boolean isInCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * @return every legal move for this generator's team
+     */
+    public Collection<ChessMove> legalMoves() {
+        Collection<ChessMove> moves = new ArrayList<>();
+        for (long pieces = own; pieces != 0; pieces &= pieces - 1) {
+            addMoves(moves, Long.numberOfTrailingZeros(pieces));
+        }
+        return moves;
+    }
+
+    /**
+     * @param position the square of one of this generator's team's pieces
+     * @return every legal move for the piece at position
+     */
+    public Collection<ChessMove> legalMoves(ChessPosition position) {
+        Collection<ChessMove> moves = new ArrayList<>();
+        int square = ChessBoard.square(position);
+        if ((own & (1L << square)) != 0) {
+            addMoves(moves, square);
+        }
+        return moves;
+    }
+
+    /**
+     * @return True if this generator's team has at least one legal move
+     */
+    public boolean hasLegalMove() {
+        for (long pieces = own; pieces != 0; pieces &= pieces - 1) {
+            if (legalTargets(Long.numberOfTrailingZeros(pieces)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines if the given team's king is attacked, without building move tables
+     * for the whole position
+     *
+     * @return True if the team has a king and it is attacked
+     */
+    public static boolean isInCheck(ChessBoard board, ChessGame.TeamColor color) {
+        int kingSquare = board.getKingSquare(color);
+        if (kingSquare < 0) {
+            return false;
+        }
+        return attackersOf(board, kingSquare, opponent(color), board.getOccupancy()) != 0;
+    }
+
+    private void addMoves(Collection<ChessMove> moves, int from) {
+        ChessPosition start = ChessPosition.ofSquare(from);
+        boolean promotes = (board.getBitboard(color, ChessPiece.PieceType.PAWN) & (1L << from)) != 0
+                && isLastRank(from + (color == ChessGame.TeamColor.WHITE ? 8 : -8));
+        for (long targets = legalTargets(from); targets != 0; targets &= targets - 1) {
+            ChessPosition end = ChessPosition.ofSquare(Long.numberOfTrailingZeros(targets));
+            if (promotes) {
+                for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                    moves.add(new ChessMove(start, end, promotion));
+                }
+            } else {
+                moves.add(new ChessMove(start, end, null));
+            }
+        }
+    }
+
+    private long legalTargets(int from) {
+        long fromBit = 1L << from;
+        if (from == kingSquare) {
+            long targets = 0L;
+            long withoutKing = occupied & ~fromBit;
+            for (long candidates = KING_ATTACKS[from] & ~own; candidates != 0; candidates &= candidates - 1) {
+                int to = Long.numberOfTrailingZeros(candidates);
+                if (attackersOf(board, to, enemy, withoutKing) == 0) {
+                    targets |= 1L << to;
+                }
+            }
+            return targets;
+        }
+        if (Long.bitCount(checkers) > 1) {
+            // only the king can answer a double check
+            return 0L;
+        }
+
+        long targets = pseudoTargets(from, fromBit) & ~own;
+        if (checkers != 0) {
+            targets &= checkers | BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+        }
+        if ((pinned & fromBit) != 0) {
+            targets &= LINE[kingSquare][from];
+        }
+        return targets;
+    }
+
+    private long pseudoTargets(int from, long fromBit) {
+        if ((board.getBitboard(color, ChessPiece.PieceType.PAWN) & fromBit) != 0) {
+            return pawnTargets(from);
+        }
+        if ((board.getBitboard(color, ChessPiece.PieceType.KNIGHT) & fromBit) != 0) {
+            return KNIGHT_ATTACKS[from];
+        }
+        if ((board.getBitboard(color, ChessPiece.PieceType.BISHOP) & fromBit) != 0) {
+            return bishopAttacks(from, occupied);
+        }
+        if ((board.getBitboard(color, ChessPiece.PieceType.ROOK) & fromBit) != 0) {
+            return rookAttacks(from, occupied);
+        }
+        if ((board.getBitboard(color, ChessPiece.PieceType.QUEEN) & fromBit) != 0) {
+            return bishopAttacks(from, occupied) | rookAttacks(from, occupied);
+        }
+        // a second king of the same color; the first one is the one kept out of check
+        return KING_ATTACKS[from];
+    }
+
+    private long pawnTargets(int from) {
+        int row = from / 8;
+        int step = color == ChessGame.TeamColor.WHITE ? 8 : -8;
+        long targets = PAWN_ATTACKS[color.ordinal()][from] & board.getOccupancy(enemy);
+        int forward = from + step;
+        if (forward >= 0 && forward < 64 && (occupied & (1L << forward)) == 0) {
+            targets |= 1L << forward;
+            int startRow = color == ChessGame.TeamColor.WHITE ? 1 : 6;
+            if (row == startRow && (occupied & (1L << (forward + step))) == 0) {
+                targets |= 1L << (forward + step);
+            }
+        }
+        return targets;
+    }
+
+    private static long attackersOf(ChessBoard board, int square, ChessGame.TeamColor attacker, long occupied) {
+        long queens = board.getBitboard(attacker, ChessPiece.PieceType.QUEEN);
+        return (KNIGHT_ATTACKS[square] & board.getBitboard(attacker, ChessPiece.PieceType.KNIGHT))
+                | (KING_ATTACKS[square] & board.getBitboard(attacker, ChessPiece.PieceType.KING))
+                | (PAWN_ATTACKS[opponent(attacker).ordinal()][square] & board.getBitboard(attacker, ChessPiece.PieceType.PAWN))
+                | (bishopAttacks(square, occupied) & (board.getBitboard(attacker, ChessPiece.PieceType.BISHOP) | queens))
+                | (rookAttacks(square, occupied) & (board.getBitboard(attacker, ChessPiece.PieceType.ROOK) | queens));
+    }
+
+    private static long rookAttacks(int square, long occupied) {
+        long attacks = 0L;
+        for (int direction : ROOK_DIRECTIONS) {
+            attacks |= rayAttacks(direction, square, occupied);
+        }
+        return attacks;
+    }
+
+    private static long bishopAttacks(int square, long occupied) {
+        long attacks = 0L;
+        for (int direction : BISHOP_DIRECTIONS) {
+            attacks |= rayAttacks(direction, square, occupied);
+        }
+        return attacks;
+    }
+
+    private static long rayAttacks(int direction, int square, long occupied) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        if (blockers == 0) {
+            return ray;
+        }
+        // the first four directions run toward higher squares, so the nearest blocker is the lowest bit
+        int blocker = direction < 4 ? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+        return ray ^ RAYS[direction][blocker];
+    }
+
+    private static boolean isLastRank(int square) {
+        return square < 8 || square >= 56;
+    }
+
+    private static long bit(int row, int col) {
+        if (row < 0 || row > 7 || col < 0 || col > 7) {
+            return 0L;
+        }
+        return 1L << (row * 8 + col);
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,142 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size transposition table of legal moves. Each slot holds the full set of
+ * legal moves for one team in one position, along with whether that team is in check,
+ * so highlighting, move validation and the checkmate and stalemate checks can share
+ * one move generation.
+ * <p>
+ * Slots are chosen by Zobrist key and a new entry always replaces the one in its slot,
+ * so the table never grows past its size. Entries are immutable and are checked against
+ * the full board before use, so a key collision can only cost a miss. It is safe to use
+ * from many threads at once.
+ */
+public final class MoveCache {
+    /**
+     * The cache shared by every game. Its size is set with the
+     * {@code chess.moveCache.size} system property and rounded up to a power of two;
+     * a size of 0 turns caching off.
+     */
+    public static final MoveCache SHARED = new MoveCache(Integer.getInteger("chess.moveCache.size", 1 << 14));
+
+    private static final ChessMove[] NO_MOVES = new ChessMove[0];
+
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param size the number of positions to hold; rounded up to a power of two, or 0
+     *             to generate the moves on every call without keeping them
+     */
+    public MoveCache(int size) {
+        if (size < 0 || size > 1 << 30) {
+            throw new IllegalArgumentException("Move cache size must be between 0 and 2^30: " + size);
+        }
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        table = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Gets the legal moves of the piece on a square, as in {@link ChessGame#validMoves}
+     *
+     * @return a new collection the caller may modify; empty if the square does not hold
+     * one of the team's pieces
+     */
+    public Collection<ChessMove> legalMoves(ChessBoard board, ChessGame.TeamColor color, ChessPosition position) {
+        Entry entry = lookup(board, color);
+        int square = ChessBoard.square(position);
+        Collection<ChessMove> moves = new ArrayList<>(entry.offsets[square + 1] - entry.offsets[square]);
+        for (int i = entry.offsets[square]; i < entry.offsets[square + 1]; i++) {
+            moves.add(entry.moves[i]);
+        }
+        return moves;
+    }
+
+    /**
+     * @return True if the team is in check and has no legal move
+     */
+    public boolean isCheckmate(ChessBoard board, ChessGame.TeamColor color) {
+        Entry entry = lookup(board, color);
+        return entry.inCheck && entry.moves.length == 0;
+    }
+
+    /**
+     * @return True if the team is not in check and has no legal move
+     */
+    public boolean isStalemate(ChessBoard board, ChessGame.TeamColor color) {
+        Entry entry = lookup(board, color);
+        return !entry.inCheck && entry.moves.length == 0;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getCapacity() {
+        return table.length();
+    }
+
+    /**
+     * Empties the cache. The hit and miss counters are left as they are.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, null);
+        }
+    }
+
+    private Entry lookup(ChessBoard board, ChessGame.TeamColor color) {
+        long key = color == ChessGame.TeamColor.BLACK
+                ? board.getZobristKey() ^ Zobrist.BLACK_TO_MOVE : board.getZobristKey();
+        if (table.length() == 0) {
+            misses.increment();
+            return generate(board, color, key);
+        }
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        Entry entry = table.get(slot);
+        if (entry != null && entry.key == key && board.hasPieces(entry.pieces)) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        entry = generate(board, color, key);
+        table.set(slot, entry);
+        return entry;
+    }
+
+    private static Entry generate(ChessBoard board, ChessGame.TeamColor color, long key) {
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, color);
+        Collection<ChessMove> legal = generator.legalMoves();
+        ChessMove[] moves = legal.isEmpty() ? NO_MOVES : legal.toArray(NO_MOVES);
+        // the generator lists moves a piece at a time, so one pass finds where each square's run starts
+        int[] offsets = new int[65];
+        int next = 0;
+        for (int square = 0; square < 64; square++) {
+            offsets[square] = next;
+            while (next < moves.length && ChessBoard.square(moves[next].getStartPosition()) == square) {
+                next++;
+            }
+        }
+        offsets[64] = next;
+        return new Entry(key, board.copyPieces(), moves, offsets, generator.isInCheck());
+    }
+
+    private record Entry(long key, long[] pieces, ChessMove[] moves, int[] offsets, boolean inCheck) {
+    }
+}
@@ -21,16 +21,16 @@ public class PawnMoveCalculator implements ChessPieceMoveCalculator {
         int row = position.getRow();
         int col = position.getColumn();
         // define possible moves
-        ChessPosition forward = new ChessPosition(row + direction, col);
-        ChessPosition diagLeft = new ChessPosition(row + direction, col -1);
-        ChessPosition diagRight = new ChessPosition(row + direction, col + 1);
+        ChessPosition forward = ChessPosition.of(row + direction, col);
+        ChessPosition diagLeft = ChessPosition.of(row + direction, col -1);
+        ChessPosition diagRight = ChessPosition.of(row + direction, col + 1);
         // check if it's the first move, if so, no worry about out of bounds
         if (
                 isFirstMove(board, position) &&
-                squareEmpty(board, new ChessPosition(row + direction, col)) &&
-                squareEmpty(board, new ChessPosition(row + direction + direction, col)))
+                squareEmpty(board, ChessPosition.of(row + direction, col)) &&
+                squareEmpty(board, ChessPosition.of(row + direction + direction, col)))
         {
-            moves.add(new ChessMove(position, new ChessPosition(row + direction + direction, col), null));
+            moves.add(new ChessMove(position, ChessPosition.of(row + direction + direction, col), null));
         }
         // check move one space forward, non promotion move
         if (squareEmpty(board, forward) && row + direction != 8 && row + direction != 1) {
@@ -0,0 +1,33 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the key for every
+ * piece on its square, plus {@link #BLACK_TO_MOVE} when it is black's turn, so it can be
+ * updated in constant time as pieces come and go.
+ * <p>
+ * The keys come from a fixed seed, so a position has the same key in every process.
+ */
+final class Zobrist {
+    static final long BLACK_TO_MOVE;
+    // indexed by [ChessBoard.pieceIndex(color, type)][square]
+    private static final long[][] PIECE_KEYS = new long[12][64];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x240C4E55L);
+        for (long[] keys : PIECE_KEYS) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    static long piece(int pieceIndex, int square) {
+        return PIECE_KEYS[pieceIndex][square];
+    }
+}
@@ -1,6 +1,6 @@
 package exception;
 
-import com.google.gson.Gson;
+import json.ChessGson;
 
 import java.util.Map;
 
@@ -13,11 +13,11 @@ public class ResponseException extends Exception {
     }
 
     public String toJson() {
-        return new Gson().toJson(Map.of("message", getMessage(), "status", statusCode));
+        return ChessGson.GSON.toJson(Map.of("message", getMessage(), "status", statusCode));
     }
 
     public static ResponseException fromJson(String json, int status) {
-        Map errorMap = new Gson().fromJson(json, Map.class);
+        Map errorMap = ChessGson.GSON.fromJson(json, Map.class);
         String message = (String) errorMap.get("message");
         if (message == null || message.isEmpty()) {
             message = "Unknown error";
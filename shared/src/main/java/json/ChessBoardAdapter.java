@@ -0,0 +1,98 @@
+package json;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a board as {"board":[[...]]}, an 8x8 array of pieces and nulls from row 1 to
+ * row 8, which is what reflection wrote before the board moved to bitboards. Clients that
+ * decode boards with a plain Gson, or parse JSON numbers as doubles as JavaScript does,
+ * keep working; a 64-bit bitboard would lose its high bits in a double.
+ * <p>
+ * Boards sent as {"pieces":[...]}, their piece bitboards as numbers or strings, can
+ * also be read.
+ */
+final class ChessBoardAdapter extends TypeAdapter<ChessBoard> {
+    private final TypeAdapter<ChessPiece> pieceAdapter = new ChessPieceAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        out.beginObject();
+        out.name("board").beginArray();
+        for (int row = 1; row <= 8; row++) {
+            out.beginArray();
+            for (int col = 1; col <= 8; col++) {
+                pieceAdapter.write(out, board.getPiece(ChessPosition.of(row, col)));
+            }
+            out.endArray();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        ChessBoard board = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "pieces" -> board = readPieces(in);
+                case "board" -> board = readRows(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return board != null ? board : new ChessBoard();
+    }
+
+    private ChessBoard readPieces(JsonReader in) throws IOException {
+        List<Long> bitboards = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            try {
+                // nextLong reads quoted numbers too
+                bitboards.add(in.nextLong());
+            } catch (NumberFormatException e) {
+                throw new JsonSyntaxException(e);
+            }
+        }
+        in.endArray();
+        long[] pieces = new long[bitboards.size()];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = bitboards.get(i);
+        }
+        try {
+            return ChessBoard.fromPieces(pieces);
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException(e.getMessage() + " at " + in.getPath(), e);
+        }
+    }
+
+    private ChessBoard readRows(JsonReader in) throws IOException {
+        ChessBoard board = new ChessBoard();
+        in.beginArray();
+        for (int row = 1; in.hasNext(); row++) {
+            in.beginArray();
+            for (int col = 1; in.hasNext(); col++) {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else {
+                    board.addPiece(ChessPosition.of(row, col), pieceAdapter.read(in));
+                }
+            }
+            in.endArray();
+        }
+        in.endArray();
+        return board;
+    }
+}
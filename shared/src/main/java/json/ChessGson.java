@@ -0,0 +1,82 @@
+package json;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
+import java.io.IOException;
+
+/**
+ * The Gson instance shared by the server and client. Gson is thread safe, so one instance
+ * serves every request instead of each caller building its own and repeating the
+ * reflection that goes with it.
+ * <p>
+ * The chess types and the websocket commands and messages are read and written by
+ * hand-written adapters, using the same field names reflection would, so a command is
+ * parsed into its concrete class in a single pass.
+ */
+public final class ChessGson {
+
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(ChessPosition.class, new ChessPositionAdapter().nullSafe())
+            .registerTypeAdapter(ChessPiece.class, new ChessPieceAdapter().nullSafe())
+            .registerTypeAdapter(ChessMove.class, new ChessMoveAdapter().nullSafe())
+            .registerTypeAdapter(ChessBoard.class, new ChessBoardAdapter().nullSafe())
+            .registerTypeHierarchyAdapter(UserGameCommand.class, new UserGameCommandAdapter().nullSafe())
+            .registerTypeHierarchyAdapter(ServerMessage.class, new ServerMessageAdapter().nullSafe())
+            .create();
+
+    private ChessGson() {
+    }
+
+    /**
+     * Reads an enum constant by name, as Gson does: unknown names and nulls read as null
+     */
+    static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> type) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String name = in.nextString();
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the next value as a string, or null if it is null
+     */
+    static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    /**
+     * @return the next value as an int, or null if it is null
+     */
+    static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package json;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a move as {"startPosition":...,"endPosition":...,"promotionPiece":...}, leaving
+ * out the promotion piece when there is none
+ */
+final class ChessMoveAdapter extends TypeAdapter<ChessMove> {
+    private final TypeAdapter<ChessPosition> positions = new ChessPositionAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter out, ChessMove move) throws IOException {
+        out.beginObject();
+        out.name("startPosition");
+        positions.write(out, move.getStartPosition());
+        out.name("endPosition");
+        positions.write(out, move.getEndPosition());
+        if (move.getPromotionPiece() != null) {
+            out.name("promotionPiece").value(move.getPromotionPiece().name());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ChessMove read(JsonReader in) throws IOException {
+        ChessPosition start = null;
+        ChessPosition end = null;
+        ChessPiece.PieceType promotion = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "startPosition" -> start = positions.read(in);
+                case "endPosition" -> end = positions.read(in);
+                case "promotionPiece" -> promotion = ChessGson.readEnum(in, ChessPiece.PieceType.class);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new ChessMove(start, end, promotion);
+    }
+}
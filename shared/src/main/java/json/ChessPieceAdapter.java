@@ -0,0 +1,44 @@
+package json;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a piece as {"color":...,"type":...} and reads it back as the shared instance
+ * for that color and type
+ */
+final class ChessPieceAdapter extends TypeAdapter<ChessPiece> {
+
+    @Override
+    public void write(JsonWriter out, ChessPiece piece) throws IOException {
+        out.beginObject();
+        out.name("color").value(piece.getTeamColor().name());
+        out.name("type").value(piece.getPieceType().name());
+        out.endObject();
+    }
+
+    @Override
+    public ChessPiece read(JsonReader in) throws IOException {
+        ChessGame.TeamColor color = null;
+        ChessPiece.PieceType type = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "color" -> color = ChessGson.readEnum(in, ChessGame.TeamColor.class);
+                case "type" -> type = ChessGson.readEnum(in, ChessPiece.PieceType.class);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (color == null || type == null) {
+            throw new JsonSyntaxException("A piece needs a color and a type at " + in.getPath());
+        }
+        return ChessPiece.of(color, type);
+    }
+}
@@ -0,0 +1,78 @@
+package json;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import websocket.messages.Error;
+import websocket.messages.LoadGame;
+import websocket.messages.MoveMade;
+import websocket.messages.Notification;
+import websocket.messages.ServerMessage;
+
+import java.io.IOException;
+
+/**
+ * Reads a server message straight into the subclass its serverMessageType names, in one
+ * pass over the message. A message with a missing or unknown type is read as a plain
+ * {@link ServerMessage} with a null type.
+ */
+final class ServerMessageAdapter extends TypeAdapter<ServerMessage> {
+    private final TypeAdapter<ChessBoard> boardAdapter = new ChessBoardAdapter().nullSafe();
+    private final TypeAdapter<ChessMove> moveAdapter = new ChessMoveAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter out, ServerMessage message) throws IOException {
+        out.beginObject();
+        ServerMessage.ServerMessageType type = message.getServerMessageType();
+        out.name("serverMessageType").value(type == null ? null : type.name());
+        if (message instanceof LoadGame loadGame) {
+            out.name("game");
+            boardAdapter.write(out, loadGame.getGame());
+            out.name("sequence").value(loadGame.getSequence());
+        } else if (message instanceof MoveMade moveMade) {
+            out.name("move");
+            moveAdapter.write(out, moveMade.getMove());
+            out.name("sequence").value(moveMade.getSequence());
+        } else if (message instanceof Notification notification) {
+            out.name("message").value(notification.getMessage());
+        } else if (message instanceof Error error) {
+            out.name("errorMessage").value(error.getErrorMessage());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ServerMessage read(JsonReader in) throws IOException {
+        ServerMessage.ServerMessageType type = null;
+        ChessBoard game = null;
+        ChessMove move = null;
+        Integer sequence = null;
+        String text = null;
+        String errorMessage = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "serverMessageType" -> type = ChessGson.readEnum(in, ServerMessage.ServerMessageType.class);
+                case "game" -> game = boardAdapter.read(in);
+                case "move" -> move = moveAdapter.read(in);
+                case "sequence" -> sequence = ChessGson.readInteger(in);
+                case "message" -> text = ChessGson.readString(in);
+                case "errorMessage" -> errorMessage = ChessGson.readString(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (type == null) {
+            return new ServerMessage(null);
+        }
+        int seq = sequence == null ? 0 : sequence;
+        return switch (type) {
+            case LOAD_GAME -> new LoadGame(game, seq);
+            case MOVE_MADE -> new MoveMade(move, seq);
+            case NOTIFICATION -> new Notification(text);
+            case ERROR -> new Error(errorMessage);
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package json;
+
+import chess.ChessMove;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import websocket.commands.Connect;
+import websocket.commands.Leave;
+import websocket.commands.MakeMove;
+import websocket.commands.Resign;
+import websocket.commands.Resync;
+import websocket.commands.UserGameCommand;
+
+import java.io.IOException;
+
+/**
+ * Reads a command straight into the subclass its commandType names, collecting every
+ * field in one pass over the message. A command with a missing or unknown type is read as
+ * a plain {@link UserGameCommand} with a null type.
+ */
+final class UserGameCommandAdapter extends TypeAdapter<UserGameCommand> {
+    private final TypeAdapter<ChessMove> moveAdapter = new ChessMoveAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter out, UserGameCommand command) throws IOException {
+        out.beginObject();
+        out.name("commandType").value(command.getCommandType() == null ? null : command.getCommandType().name());
+        out.name("authToken").value(command.getAuthToken());
+        out.name("gameID").value(command.getGameID());
+        if (command instanceof MakeMove makeMove) {
+            out.name("move");
+            moveAdapter.write(out, makeMove.getMove());
+            out.name("isWhite").value(makeMove.getIsWhite());
+        } else if (command instanceof Connect connect) {
+            out.name("moveUpdates").value(connect.wantsMoveUpdates());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public UserGameCommand read(JsonReader in) throws IOException {
+        UserGameCommand.CommandType type = null;
+        String authToken = null;
+        Integer gameID = null;
+        ChessMove move = null;
+        boolean isWhite = false;
+        boolean moveUpdates = false;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "commandType" -> type = ChessGson.readEnum(in, UserGameCommand.CommandType.class);
+                case "authToken" -> authToken = ChessGson.readString(in);
+                case "gameID" -> gameID = ChessGson.readInteger(in);
+                case "move" -> move = moveAdapter.read(in);
+                case "isWhite" -> isWhite = readBoolean(in);
+                case "moveUpdates" -> moveUpdates = readBoolean(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (type == null) {
+            return new UserGameCommand(null, authToken, gameID);
+        }
+        return switch (type) {
+            case CONNECT -> new Connect(authToken, gameID, moveUpdates);
+            case MAKE_MOVE -> new MakeMove(authToken, gameID, move, isWhite);
+            case LEAVE -> new Leave(authToken, gameID);
+            case RESIGN -> new Resign(authToken, gameID);
+            case RESYNC -> new Resync(authToken, gameID);
+        };
+    }
+
+    private static boolean readBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+        }
+        return in.nextBoolean();
+    }
+}
@@ -0,0 +1,23 @@
+package model;
+
+/**
+ * Narrows a game listing. Null fields don't filter.
+ *
+ * @param openSeatsOnly True to list only games with an empty seat
+ * @param player        a username that must be playing white or black
+ * @param namePrefix    text the game's name must start with
+ */
+public record GameFilter(boolean openSeatsOnly, String player, String namePrefix) {
+
+    public static final GameFilter ALL = new GameFilter(false, null, null);
+
+    public boolean matches(GameSummary game) {
+        if (openSeatsOnly && !game.hasOpenSeat()) {
+            return false;
+        }
+        if (player != null && !player.equals(game.whiteUsername()) && !player.equals(game.blackUsername())) {
+            return false;
+        }
+        return namePrefix == null || (game.gameName() != null && game.gameName().startsWith(namePrefix));
+    }
+}
@@ -1,10 +1,15 @@
 package model;
 
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
 
-public record GameListResponse(HashSet<GameData> games) {
-    public GameListResponse(HashSet<GameData> games) {
-        this.games = new HashSet<>(Collections.unmodifiableSet(games));
+/**
+ * One page of a game listing, in gameID order.
+ *
+ * @param nextCursor pass back as the cursor to get the next page; null on the last page
+ */
+public record GameListResponse(List<GameSummary> games, String nextCursor) {
+    public GameListResponse(List<GameSummary> games, String nextCursor) {
+        this.games = games == null ? List.of() : List.copyOf(games);
+        this.nextCursor = nextCursor;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package model;
+
+import chess.ChessMove;
+
+import java.time.Instant;
+
+/**
+ * One move in a game's history
+ *
+ * @param ply      the number of moves played once this one was made, starting at 1
+ * @param playedAt when the move was made
+ */
+public record GameMove(int gameID, int ply, ChessMove move, Instant playedAt) {
+}
@@ -0,0 +1,15 @@
+package model;
+
+/**
+ * The part of a game shown in the lobby: who is playing and what it is called, without
+ * the board
+ */
+public record GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName) {
+
+    /**
+     * @return True if white or black has no player yet
+     */
+    public boolean hasOpenSeat() {
+        return whiteUsername == null || blackUsername == null;
+    }
+}
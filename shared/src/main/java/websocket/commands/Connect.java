@@ -2,7 +2,19 @@ package websocket.commands;
 
 public class Connect extends UserGameCommand {
 
+    // True if the client applies MOVE_MADE messages itself rather than getting a LOAD_GAME after every move
+    private final Boolean moveUpdates;
+
     public Connect(String authToken, Integer gameID) {
+        this(authToken, gameID, false);
+    }
+
+    public Connect(String authToken, Integer gameID, boolean moveUpdates) {
         super(CommandType.CONNECT, authToken, gameID);
+        this.moveUpdates = moveUpdates;
+    }
+
+    public boolean wantsMoveUpdates() {
+        return moveUpdates != null && moveUpdates;
     }
 }
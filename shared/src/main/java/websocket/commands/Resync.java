@@ -0,0 +1,11 @@
+package websocket.commands;
+
+/**
+ * Asks the server to send the whole board again, for a client that missed a MOVE_MADE
+ */
+public class Resync extends UserGameCommand {
+
+    public Resync(String authToken, Integer gameID) {
+        super(CommandType.RESYNC, authToken, gameID);
+    }
+}
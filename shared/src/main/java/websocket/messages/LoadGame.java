@@ -5,13 +5,24 @@ import chess.ChessBoard;
 public class LoadGame extends ServerMessage {
 
     private final ChessBoard game; // Replace Object with your actual game type if needed
+    // the number of moves played to reach this board, to order it against MOVE_MADE messages
+    private final int sequence;
 
     public LoadGame(ChessBoard game) {
+        this(game, 0);
+    }
+
+    public LoadGame(ChessBoard game, int sequence) {
         super(ServerMessageType.LOAD_GAME);
         this.game = game;
+        this.sequence = sequence;
     }
 
     public ChessBoard getGame() {
         return game;
     }
+
+    public int getSequence() {
+        return sequence;
+    }
 }
@@ -0,0 +1,29 @@
+package websocket.messages;
+
+import chess.ChessMove;
+
+/**
+ * Tells a client which move was just played, so it can update its own copy of the board
+ * instead of receiving the whole board again. The sequence is the number of moves played
+ * once this one is made; a client whose board is not at sequence - 1 has missed a move
+ * and should ask for a full LOAD_GAME with a RESYNC command.
+ */
+public class MoveMade extends ServerMessage {
+
+    private final ChessMove move;
+    private final int sequence;
+
+    public MoveMade(ChessMove move, int sequence) {
+        super(ServerMessageType.MOVE_MADE);
+        this.move = move;
+        this.sequence = sequence;
+    }
+
+    public ChessMove getMove() {
+        return move;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,109 @@
+package chess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveCacheTests {
+
+    private static final ChessPosition QUEEN = ChessPosition.of(1, 4);
+    private static final ChessPosition KING_PAWN = ChessPosition.of(2, 5);
+
+    private ChessBoard start;
+    private ChessBoard afterKingPawn;
+
+    @BeforeEach
+    public void setUp() throws InvalidMoveException {
+        start = new ChessBoard();
+        start.resetBoard();
+        ChessGame game = new ChessGame();
+        game.setBoard(new ChessBoard(start));
+        game.makeMove(new ChessMove(KING_PAWN, ChessPosition.of(4, 5), null));
+        afterKingPawn = game.getBoard();
+    }
+
+    // Test legalMoves() - Positive Case (first lookup misses, repeats hit)
+    @Test
+    public void testHitsAndMissesCounted() {
+        MoveCache cache = new MoveCache(16);
+
+        assertEquals(2, cache.legalMoves(start, ChessGame.TeamColor.WHITE, KING_PAWN).size());
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        cache.legalMoves(start, ChessGame.TeamColor.WHITE, QUEEN);
+        assertFalse(cache.isCheckmate(start, ChessGame.TeamColor.WHITE));
+        assertFalse(cache.isStalemate(new ChessBoard(start), ChessGame.TeamColor.WHITE));
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // the other team in the same position is a different entry
+        cache.legalMoves(start, ChessGame.TeamColor.BLACK, ChessPosition.of(7, 5));
+        assertEquals(2, cache.getMisses());
+    }
+
+    // Test legalMoves() - Positive Case (a slot taken by another position is a miss, not its moves)
+    @Test
+    public void testSlotCollisionFallsBackToMiss() {
+        // one slot, so every position lands in the same place
+        MoveCache cache = new MoveCache(1);
+        assertEquals(1, cache.getCapacity());
+
+        assertTrue(cache.legalMoves(start, ChessGame.TeamColor.WHITE, QUEEN).isEmpty());
+        assertEquals(4, cache.legalMoves(afterKingPawn, ChessGame.TeamColor.WHITE, QUEEN).size());
+        assertTrue(cache.legalMoves(start, ChessGame.TeamColor.WHITE, QUEEN).isEmpty());
+
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    // Test legalMoves() - Positive Case (cached moves match the generator's)
+    @Test
+    public void testMatchesGenerator() {
+        MoveCache cache = new MoveCache(16);
+        LegalMoveGenerator generator = new LegalMoveGenerator(afterKingPawn, ChessGame.TeamColor.WHITE);
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                assertEquals(new HashSet<>(generator.legalMoves(position)),
+                        new HashSet<>(cache.legalMoves(afterKingPawn, ChessGame.TeamColor.WHITE, position)));
+            }
+        }
+    }
+
+    // Test clear() - Positive Case (entries are dropped, counters kept)
+    @Test
+    public void testClearDropsEntries() {
+        MoveCache cache = new MoveCache(16);
+        cache.legalMoves(start, ChessGame.TeamColor.WHITE, KING_PAWN);
+        cache.clear();
+        cache.legalMoves(start, ChessGame.TeamColor.WHITE, KING_PAWN);
+
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    // Test MoveCache() - Positive Case (size 0 generates every time and keeps nothing)
+    @Test
+    public void testSizeZeroDisabled() {
+        MoveCache cache = new MoveCache(0);
+        assertEquals(0, cache.getCapacity());
+
+        assertEquals(2, cache.legalMoves(start, ChessGame.TeamColor.WHITE, KING_PAWN).size());
+        assertEquals(2, cache.legalMoves(start, ChessGame.TeamColor.WHITE, KING_PAWN).size());
+        assertFalse(cache.isCheckmate(start, ChessGame.TeamColor.WHITE));
+
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    // Test MoveCache() - Negative Case (size out of range)
+    @Test
+    public void testRejectsBadSize() {
+        assertThrows(IllegalArgumentException.class, () -> new MoveCache(-1));
+        assertThrows(IllegalArgumentException.class, () -> new MoveCache((1 << 30) + 1));
+    }
+}
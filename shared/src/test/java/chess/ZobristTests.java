@@ -0,0 +1,108 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristTests {
+
+    // Test undoMove() - Positive Case (taking back a move, capture and promotion restores the key)
+    @Test
+    public void testUndoRestoresKey() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(7, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        game.setBoard(board);
+        long before = game.getZobristKey();
+        long boardBefore = board.getZobristKey();
+
+        List<ChessMove> moves = List.of(
+                new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 5), null),
+                new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 2), ChessPiece.PieceType.QUEEN));
+        for (ChessMove move : moves) {
+            game.setTeamTurn(ChessGame.TeamColor.WHITE);
+            long keyBefore = game.getZobristKey();
+            ChessGame.MoveUndo undo = game.applyMove(move);
+
+            assertNotEquals(keyBefore, game.getZobristKey());
+            game.undoMove(undo);
+            assertEquals(keyBefore, game.getZobristKey());
+        }
+        assertEquals(before, game.getZobristKey());
+        assertEquals(boardBefore, game.getBoard().getZobristKey());
+    }
+
+    // Test getZobristKey() - Positive Case (move orders reaching the same position give the same key)
+    @Test
+    public void testTranspositionsEqual() {
+        ChessGame first = play(new int[][]{{1, 7, 3, 6}, {8, 7, 6, 6}, {1, 2, 3, 3}});
+        ChessGame second = play(new int[][]{{1, 2, 3, 3}, {8, 7, 6, 6}, {1, 7, 3, 6}});
+
+        assertEquals(first, second);
+        assertEquals(first.getZobristKey(), second.getZobristKey());
+        assertEquals(first.getBoard().getZobristKey(), second.getBoard().getZobristKey());
+    }
+
+    // Test getZobristKey() - Positive Case (the side to move is part of the key)
+    @Test
+    public void testSideToMoveChangesKey() {
+        ChessGame white = new ChessGame();
+        ChessGame black = new ChessGame();
+        black.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        assertEquals(white.getBoard().getZobristKey(), black.getBoard().getZobristKey());
+        assertNotEquals(white.getZobristKey(), black.getZobristKey());
+        assertEquals(Zobrist.BLACK_TO_MOVE, white.getZobristKey() ^ black.getZobristKey());
+    }
+
+    // Test addPiece() - Positive Case (the incremental key matches a board built from scratch at every ply)
+    @Test
+    public void testMatchesRebuiltBoard() {
+        ChessGame game = new ChessGame();
+        long start = game.getZobristKey();
+        Deque<ChessGame.MoveUndo> played = new ArrayDeque<>();
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int ply = 0; ply < 60; ply++) {
+            List<ChessMove> legal = new ArrayList<>(new LegalMoveGenerator(game.getBoard(), game.getTeamTurn()).legalMoves());
+            if (legal.isEmpty()) {
+                break;
+            }
+            played.push(game.applyMove(legal.get(random.nextInt(legal.size()))));
+
+            ChessBoard rebuilt = new ChessBoard();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPosition position = ChessPosition.of(row, col);
+                    rebuilt.addPiece(position, game.getBoard().getPiece(position));
+                }
+            }
+            assertEquals(rebuilt.getZobristKey(), game.getBoard().getZobristKey(), "ply " + ply);
+            assertEquals(ChessBoard.fromPieces(game.getBoard().copyPieces()).getZobristKey(),
+                    game.getBoard().getZobristKey(), "ply " + ply);
+        }
+
+        while (!played.isEmpty()) {
+            game.undoMove(played.pop());
+        }
+        assertEquals(start, game.getZobristKey());
+        assertEquals(new ChessGame().getZobristKey(), game.getZobristKey());
+    }
+
+    private static ChessGame play(int[][] moves) {
+        ChessGame game = new ChessGame();
+        for (int[] move : moves) {
+            game.applyMove(new ChessMove(ChessPosition.of(move[0], move[1]), ChessPosition.of(move[2], move[3]), null));
+        }
+        return game;
+    }
+}
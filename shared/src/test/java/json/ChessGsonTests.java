@@ -0,0 +1,173 @@
+package json;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import websocket.commands.Connect;
+import websocket.commands.Leave;
+import websocket.commands.MakeMove;
+import websocket.commands.Resign;
+import websocket.commands.Resync;
+import websocket.commands.UserGameCommand;
+import websocket.messages.Error;
+import websocket.messages.LoadGame;
+import websocket.messages.MoveMade;
+import websocket.messages.Notification;
+import websocket.messages.ServerMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessGsonTests {
+
+    private ChessBoard board;
+
+    @BeforeEach
+    public void setUp() {
+        board = new ChessBoard();
+        board.resetBoard();
+        // a black piece on the top rank sets the high bits of its bitboard
+        board.addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        board.addPiece(ChessPosition.of(2, 5), null);
+    }
+
+    // Test ChessBoardAdapter - Positive Case (a board reads back the same)
+    @Test
+    public void testBoardRoundTrip() {
+        String json = ChessGson.GSON.toJson(board);
+
+        assertEquals(board, ChessGson.GSON.fromJson(json, ChessBoard.class));
+        assertEquals(new ChessBoard(), ChessGson.GSON.fromJson(ChessGson.GSON.toJson(new ChessBoard()), ChessBoard.class));
+    }
+
+    // Test ChessBoardAdapter - Positive Case (written as the 8x8 piece array, no raw bitboards)
+    @Test
+    public void testBoardWrittenAsPieceArray() {
+        JsonObject json = JsonParser.parseString(ChessGson.GSON.toJson(board)).getAsJsonObject();
+
+        assertFalse(json.has("pieces"));
+        JsonArray rows = json.getAsJsonArray("board");
+        assertEquals(8, rows.size());
+        JsonObject rook = rows.get(0).getAsJsonArray().get(0).getAsJsonObject();
+        assertEquals("WHITE", rook.get("color").getAsString());
+        assertEquals("ROOK", rook.get("type").getAsString());
+        assertTrue(rows.get(1).getAsJsonArray().get(4).isJsonNull());
+        assertEquals("QUEEN", rows.get(7).getAsJsonArray().get(7).getAsJsonObject().get("type").getAsString());
+    }
+
+    // Test ChessBoardAdapter - Positive Case (the old reflective "board" form)
+    @Test
+    public void testReadsLegacyBoard() {
+        String json = "{\"board\":[[{\"color\":\"WHITE\",\"type\":\"KING\"},null],[],[],[],[],[],[],"
+                + "[null,null,null,null,null,null,null,{\"color\":\"BLACK\",\"type\":\"KING\"}]]}";
+
+        ChessBoard expected = new ChessBoard();
+        expected.addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        expected.addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        assertEquals(expected, ChessGson.GSON.fromJson(json, ChessBoard.class));
+    }
+
+    // Test ChessBoardAdapter - Positive Case (bitboards as numbers or as strings)
+    @Test
+    public void testReadsPieceBitboards() {
+        StringBuilder numbers = new StringBuilder();
+        StringBuilder strings = new StringBuilder();
+        for (long bitboard : board.copyPieces()) {
+            numbers.append(numbers.length() == 0 ? "" : ",").append(bitboard);
+            strings.append(strings.length() == 0 ? "" : ",").append('"').append(bitboard).append('"');
+        }
+
+        assertEquals(board, ChessGson.GSON.fromJson("{\"pieces\":[" + numbers + "]}", ChessBoard.class));
+        assertEquals(board, ChessGson.GSON.fromJson("{\"pieces\":[" + strings + "]}", ChessBoard.class));
+    }
+
+    // Test ChessBoardAdapter - Negative Case (wrong number of bitboards)
+    @Test
+    public void testRejectsShortPieces() {
+        assertThrows(JsonSyntaxException.class,
+                () -> ChessGson.GSON.fromJson("{\"pieces\":[1,2]}", ChessBoard.class));
+    }
+
+    // Test ChessMoveAdapter - Positive Case (with and without a promotion)
+    @Test
+    public void testMoveRoundTrip() {
+        ChessMove plain = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        ChessMove promotion = new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 2), ChessPiece.PieceType.KNIGHT);
+
+        String plainJson = ChessGson.GSON.toJson(plain);
+        assertFalse(plainJson.contains("promotionPiece"));
+        assertEquals(plain, ChessGson.GSON.fromJson(plainJson, ChessMove.class));
+        assertEquals(promotion, ChessGson.GSON.fromJson(ChessGson.GSON.toJson(promotion), ChessMove.class));
+    }
+
+    // Test ServerMessageAdapter - Positive Case (each message type reads back as its own class)
+    @Test
+    public void testServerMessageRoundTrip() {
+        ChessMove move = new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN);
+
+        LoadGame load = (LoadGame) roundTrip(new LoadGame(board, 12), ServerMessage.class);
+        assertEquals(board, load.getGame());
+        assertEquals(12, load.getSequence());
+
+        MoveMade moveMade = (MoveMade) roundTrip(new MoveMade(move, 13), ServerMessage.class);
+        assertEquals(move, moveMade.getMove());
+        assertEquals(13, moveMade.getSequence());
+
+        assertEquals("hello", ((Notification) roundTrip(new Notification("hello"), ServerMessage.class)).getMessage());
+        assertEquals("Error: no", ((Error) roundTrip(new Error("Error: no"), ServerMessage.class)).getErrorMessage());
+    }
+
+    // Test ServerMessageAdapter - Negative Case (unknown type reads as a plain message)
+    @Test
+    public void testServerMessageUnknownType() {
+        ServerMessage message = ChessGson.GSON.fromJson("{\"serverMessageType\":\"NOPE\",\"message\":\"x\"}",
+                ServerMessage.class);
+
+        assertEquals(ServerMessage.class, message.getClass());
+        assertNull(message.getServerMessageType());
+    }
+
+    // Test UserGameCommandAdapter - Positive Case (each command type reads back as its own class)
+    @Test
+    public void testCommandRoundTrip() {
+        ChessMove move = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+
+        Connect connect = (Connect) roundTrip(new Connect("token", 7, true), UserGameCommand.class);
+        assertTrue(connect.wantsMoveUpdates());
+        assertEquals("token", connect.getAuthToken());
+        assertEquals(Integer.valueOf(7), connect.getGameID());
+
+        MakeMove makeMove = (MakeMove) roundTrip(new MakeMove("token", 7, move, true), UserGameCommand.class);
+        assertEquals(move, makeMove.getMove());
+        assertTrue(makeMove.getIsWhite());
+
+        assertClass(Leave.class, roundTrip(new Leave("token", 7), UserGameCommand.class));
+        assertClass(Resign.class, roundTrip(new Resign("token", 7), UserGameCommand.class));
+        assertClass(Resync.class, roundTrip(new Resync("token", 7), UserGameCommand.class));
+    }
+
+    // Test UserGameCommandAdapter - Positive Case (commands without the newer fields)
+    @Test
+    public void testCommandDefaults() {
+        UserGameCommand command = ChessGson.GSON.fromJson(
+                "{\"commandType\":\"CONNECT\",\"authToken\":\"token\",\"gameID\":3,\"extra\":[1]}", UserGameCommand.class);
+
+        assertFalse(((Connect) command).wantsMoveUpdates());
+        assertNull(ChessGson.GSON.fromJson("{\"gameID\":3}", UserGameCommand.class).getCommandType());
+    }
+
+    private static <T> T roundTrip(T value, Class<T> type) {
+        return ChessGson.GSON.fromJson(ChessGson.GSON.toJson(value), type);
+    }
+
+    private static void assertClass(Class<?> type, Object value) {
+        assertEquals(type, value.getClass());
+    }
+}